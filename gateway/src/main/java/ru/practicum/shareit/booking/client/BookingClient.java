@@ -7,10 +7,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOnCreate;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.user.model.UserBookingStates;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -31,6 +34,10 @@ public class BookingClient extends BaseClient {
         return post("", bookerId, bookingDtoOnCreate);
     }
 
+    public ResponseEntity<Object> createBookings(Long bookerId, List<BookingDtoOnCreate> bookingDtos) {
+        return post("/batch", bookerId, bookingDtos);
+    }
+
     public ResponseEntity<Object> confirmBooking(Long bookingId, Long ownerId, Boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
@@ -39,25 +46,39 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", ownerId, parameters);
     }
 
+    public ResponseEntity<Object> confirmBookings(Long ownerId, List<BookingDecisionDto> decisions) {
+        return patch("/approve", ownerId, decisions);
+    }
+
     public ResponseEntity<Object> getBookingById(Long bookingId, Long userRequestFromId) {
         return get("/" + bookingId, userRequestFromId);
     }
 
-    public ResponseEntity<Object> getUserBookings(Long userId, UserBookingStates state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+    public ResponseEntity<Object> getUserBookings(Long userId, UserBookingStates state, Integer from, Integer size,
+                                                  String cursor) {
+        return get("?" + listQuery(cursor), userId, listParameters(state, from, size, cursor));
     }
 
-    public ResponseEntity<Object> getBookingsByOwner(Long ownerId, UserBookingStates state, Integer from, Integer size) {
-        Map<String, Object> parameters = Map.of(
-                "state", state.name(),
-                "from", from,
-                "size", size
-        );
-        return get("/owner?state={state}&from={from}&size={size}", ownerId, parameters);
+    public ResponseEntity<Object> getBookingsByOwner(Long ownerId, UserBookingStates state, Integer from, Integer size,
+                                                     String cursor) {
+        return get("/owner?" + listQuery(cursor), ownerId, listParameters(state, from, size, cursor));
+    }
+
+    private static String listQuery(String cursor) {
+        String query = "state={state}&from={from}&size={size}";
+
+        return cursor == null ? query : query + "&cursor={cursor}";
+    }
+
+    private static Map<String, Object> listParameters(UserBookingStates state, Integer from, Integer size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+
+        parameters.put("state", state.name());
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+        }
+        return parameters;
     }
 }
@@ -7,13 +7,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.booking.client.BookingClient;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDtoOnCreate;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.exception.model.BadBookingStatusException;
 import ru.practicum.shareit.user.model.UserBookingStates;
 
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 
 /**
@@ -47,6 +51,22 @@ public class BookingController {
         return bookingClient.createBooking(bookerId, bookingDtoOnCreate);
     }
 
+    /**
+     * Создание нескольких броней одним запросом
+     *
+     * @param bookerId    пользователь, который бронирует вещи
+     * @param bookingDtos бронируемые вещи, не больше 500 за запрос
+     * @return результат по каждой брони пакета в исходном порядке
+     */
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<Object> createBookings(@RequestHeader(X_SHARER_USER_ID) @NotNull final Long bookerId,
+                                                 @RequestBody @NotEmpty @Size(max = 500)
+                                                 final List<@Valid BookingDtoOnCreate> bookingDtos) {
+        log.info("POST /bookings/batch получен для {} броней, от пользователя id = {}", bookingDtos.size(), bookerId);
+        return bookingClient.createBookings(bookerId, bookingDtos);
+    }
+
     /**
      * Подтверждение бронирование
      *
@@ -63,6 +83,22 @@ public class BookingController {
         return bookingClient.confirmBooking(bookingId, ownerId, approved);
     }
 
+    /**
+     * Подтверждение/отклонение нескольких броней владельцем одним запросом
+     *
+     * @param ownerId   id владельца вещей
+     * @param decisions решения по броням, не больше 500 за запрос
+     * @return результат по каждому решению в исходном порядке
+     */
+    @PatchMapping("/approve")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<Object> confirmBookings(@RequestHeader(X_SHARER_USER_ID) @NotNull final Long ownerId,
+                                                  @RequestBody @NotEmpty @Size(max = 500)
+                                                  final List<@Valid BookingDecisionDto> decisions) {
+        log.info("PATCH /bookings/approve получен для {} броней, от пользователя id = {}", decisions.size(), ownerId);
+        return bookingClient.confirmBookings(ownerId, decisions);
+    }
+
     /**
      * Получение брони по id
      *
@@ -83,6 +119,7 @@ public class BookingController {
      *
      * @param userId        id пользователя, чьи брони необходимо вернуть
      * @param bookingsState выборка статуса брони
+     * @param cursor        курсор из заголовка X-Next-Cursor предыдущего ответа, пустой для первой страницы
      * @return список подходящих по статусу броней
      */
     @GetMapping
@@ -90,10 +127,11 @@ public class BookingController {
     public ResponseEntity<Object> getUserBookings(@RequestHeader(X_SHARER_USER_ID) @NotNull final Long userId,
                                                   @RequestParam(value = "state", defaultValue = "ALL") String bookingsState,
                                                   @RequestParam(value = "from", defaultValue = "0") Integer from,
-                                                  @RequestParam(value = "size", defaultValue = "20") Integer size) {
+                                                  @RequestParam(value = "size", defaultValue = "20") Integer size,
+                                                  @RequestParam(value = "cursor", required = false) String cursor) {
         UserBookingStates state = UserBookingStates.from(bookingsState)
                 .orElseThrow(() -> new BadBookingStatusException("Unknown state: " + bookingsState));
-        return bookingClient.getUserBookings(userId, state, from, size);
+        return bookingClient.getUserBookings(userId, state, from, size, cursor);
     }
 
     /**
@@ -101,6 +139,7 @@ public class BookingController {
      *
      * @param ownerId       id владельца вещей
      * @param bookingsState выборка статуса вещей
+     * @param cursor        курсор из заголовка X-Next-Cursor предыдущего ответа, пустой для первой страницы
      * @return список подходящих по статусу вещей
      */
     @GetMapping("/owner")
@@ -108,9 +147,10 @@ public class BookingController {
     public ResponseEntity<Object> getBookingsByOwner(@RequestHeader(X_SHARER_USER_ID) @NotNull final Long ownerId,
                                                      @RequestParam(value = "state", defaultValue = "ALL") String bookingsState,
                                                      @RequestParam(value = "from", defaultValue = "0") Integer from,
-                                                     @RequestParam(value = "size", defaultValue = "20") Integer size) {
+                                                     @RequestParam(value = "size", defaultValue = "20") Integer size,
+                                                     @RequestParam(value = "cursor", required = false) String cursor) {
         UserBookingStates state = UserBookingStates.from(bookingsState)
                 .orElseThrow(() -> new BadBookingStatusException("Unknown state: " + bookingsState));
-        return bookingClient.getBookingsByOwner(ownerId, state, from, size);
+        return bookingClient.getBookingsByOwner(ownerId, state, from, size, cursor);
     }
 }
@@ -10,6 +10,7 @@ import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.item.model.CommentDto;
 import ru.practicum.shareit.item.model.ItemDto;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -41,13 +42,50 @@ public class ItemClient extends BaseClient {
         return get("", userIdRequestFrom);
     }
 
-    public ResponseEntity<Object> findItemsBy(String text, Integer from, Integer size) {
+    public ResponseEntity<Object> findItemsBy(String text, Integer from, Integer size, boolean fuzzy, String cursor) {
+        String query = "/search?text={text}&from={from}&size={size}&fuzzy={fuzzy}";
+        Map<String, Object> parameters = new HashMap<>();
+
+        parameters.put("text", text);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        parameters.put("fuzzy", fuzzy);
+        if (cursor != null) {
+            query += "&cursor={cursor}";
+            parameters.put("cursor", cursor);
+        }
+        return get(query, parameters);
+    }
+
+    public ResponseEntity<Object> findItemsFaceted(String text, Long ownerId, Boolean withRequest, Boolean available,
+                                                   Integer from, Integer size) {
+        StringBuilder query = new StringBuilder("/search/faceted?text={text}&from={from}&size={size}");
+        Map<String, Object> parameters = new HashMap<>();
+
+        parameters.put("text", text);
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (ownerId != null) {
+            query.append("&ownerId={ownerId}");
+            parameters.put("ownerId", ownerId);
+        }
+        if (withRequest != null) {
+            query.append("&withRequest={withRequest}");
+            parameters.put("withRequest", withRequest);
+        }
+        if (available != null) {
+            query.append("&available={available}");
+            parameters.put("available", available);
+        }
+        return get(query.toString(), parameters);
+    }
+
+    public ResponseEntity<Object> suggestNames(String prefix, Integer size) {
         Map<String, Object> parameters = Map.of(
-                "text", text,
-                "from", from,
+                "prefix", prefix,
                 "size", size
         );
-        return get("/search?text={text}&from={from}&size={size}", parameters);
+        return get("/suggest?prefix={prefix}&size={size}", parameters);
     }
 
     public ResponseEntity<Object> addComment(long userIdRequestFrom, Long itemId, CommentDto commentDto) {
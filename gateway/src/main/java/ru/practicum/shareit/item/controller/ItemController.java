@@ -12,6 +12,9 @@ import ru.practicum.shareit.item.model.ItemDto;
 import ru.practicum.shareit.utilities.models.Marker;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 
 
 /**
@@ -96,16 +99,56 @@ public class ItemController {
     /**
      * Получение списка всех вещей, удовлетворяющих поиску
      *
-     * @param text текст, по которому осуществляется поиск
+     * @param text   текст, по которому осуществляется поиск
+     * @param fuzzy  нечеткий поиск: с опечатками и в другой раскладке, результаты упорядочены по сходству
+     * @param cursor курсор из заголовка X-Next-Cursor предыдущего ответа, пустой для первой страницы
      * @return список подходящих вещей
      */
     @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<Object> findItemsByText(@RequestParam("text") String text,
-                                                  @RequestParam(value = "from", defaultValue = "0") Integer from,
-                                                  @RequestParam(value = "size", defaultValue = "20") Integer size) {
-        log.info("GET /items/search получен для text = " + text);
-        return itemClient.findItemsBy(text, from, size);
+                                                  @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero Integer from,
+                                                  @RequestParam(value = "size", defaultValue = "20") @Positive Integer size,
+                                                  @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy,
+                                                  @RequestParam(value = "cursor", required = false) String cursor) {
+        log.info("GET /items/search получен для text = {}, fuzzy = {}, cursor = {}", text, fuzzy, cursor);
+        return itemClient.findItemsBy(text, from, size, fuzzy, cursor);
+    }
+
+    /**
+     * Поиск вещей с фильтрами и счетчиками фасетов
+     *
+     * @param text        текст запроса; если не задан - выбираются все вещи
+     * @param ownerId     фильтр по владельцу
+     * @param withRequest фильтр по наличию запроса, в ответ на который создана вещь
+     * @param available   фильтр по доступности
+     * @return страница вещей по возрастанию id, общее количество и счетчики фасетов
+     */
+    @GetMapping("/search/faceted")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<Object> findItemsFaceted(@RequestParam(value = "text", defaultValue = "") String text,
+                                                   @RequestParam(value = "ownerId", required = false) Long ownerId,
+                                                   @RequestParam(value = "withRequest", required = false) Boolean withRequest,
+                                                   @RequestParam(value = "available", required = false) Boolean available,
+                                                   @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero Integer from,
+                                                   @RequestParam(value = "size", defaultValue = "20") @Positive Integer size) {
+        log.info("GET /items/search/faceted получен для text = {}, ownerId = {}, withRequest = {}, available = {}",
+                text, ownerId, withRequest, available);
+        return itemClient.findItemsFaceted(text, ownerId, withRequest, available, from, size);
+    }
+
+    /**
+     * Подсказки названий вещей при наборе поискового запроса
+     *
+     * @param prefix начало названия
+     * @param size   максимальное количество подсказок
+     * @return названия доступных вещей
+     */
+    @GetMapping("/suggest")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<Object> suggestNames(@RequestParam("prefix") String prefix,
+                                               @RequestParam(value = "size", defaultValue = "10") @Positive @Max(50) Integer size) {
+        return itemClient.suggestNames(prefix, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -9,6 +9,7 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.request.model.ItemRequestDtoOnCreate;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Service
@@ -29,19 +30,48 @@ public class ItemRequestClient extends BaseClient {
         return post("", userId, request);
     }
 
-    public ResponseEntity<Object> getRequestsByOwner(Long ownerId) {
-        return get("", ownerId);
+    public ResponseEntity<Object> getRequestsByOwner(Long ownerId, Integer from, Integer size) {
+        if (size == null) {
+            return get("", ownerId);
+        }
+        return get("?from={from}&size={size}", ownerId, Map.of("from", from, "size", size));
+    }
+
+    public ResponseEntity<Object> getSummary(Long ownerId) {
+        return get("/summary", ownerId);
+    }
+
+    public ResponseEntity<Object> getSuggestions(Long ownerId, Integer from, Integer size) {
+        return get("/suggestions?from={from}&size={size}", ownerId, Map.of("from", from, "size", size));
+    }
+
+    public ResponseEntity<Object> searchRequests(Long userId, String text, Integer size, String cursor) {
+        String query = "/search?text={text}&size={size}";
+        Map<String, Object> parameters = new HashMap<>();
+
+        parameters.put("text", text);
+        parameters.put("size", size);
+        if (cursor != null) {
+            query += "&cursor={cursor}";
+            parameters.put("cursor", cursor);
+        }
+        return get(query, userId, parameters);
     }
 
     public ResponseEntity<Object> getRequestById(Long requestId, Long userRequestFromId) {
         return get("/" + requestId, userRequestFromId);
     }
 
-    public ResponseEntity<Object> getAllRequests(Integer from, Integer size, Long userRequestFromId) {
-        Map<String, Object> parameters = Map.of(
-                "from", from,
-                "size", size
-        );
-        return get("/all", userRequestFromId, parameters);
+    public ResponseEntity<Object> getAllRequests(Integer from, Integer size, String cursor, Long userRequestFromId) {
+        String query = "/all?from={from}&size={size}";
+        Map<String, Object> parameters = new HashMap<>();
+
+        parameters.put("from", from);
+        parameters.put("size", size);
+        if (cursor != null) {
+            query += "&cursor={cursor}";
+            parameters.put("cursor", cursor);
+        }
+        return get(query, userRequestFromId, parameters);
     }
 }
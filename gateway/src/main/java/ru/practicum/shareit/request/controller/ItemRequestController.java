@@ -34,11 +34,65 @@ public class ItemRequestController {
         return itemRequestClient.createRequest(userId, request);
     }
 
+    /**
+     * Получение запросов пользователя. Без параметра size возвращаются все запросы
+     *
+     * @param from смещение
+     * @param size размер страницы
+     * @return запросы пользователя
+     */
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public ResponseEntity<Object> getRequestsByOwner(@RequestHeader(xSharerUserId) Long ownerId) {
-        log.info("GET /requests: получен для ownerId = {}", ownerId);
-        return itemRequestClient.getRequestsByOwner(ownerId);
+    public ResponseEntity<Object> getRequestsByOwner(@RequestHeader(xSharerUserId) Long ownerId,
+                                                     @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero Integer from,
+                                                     @RequestParam(value = "size", required = false) @Positive Integer size) {
+        log.info("GET /requests: получен для ownerId = {}, from = {}, size = {}", ownerId, from, size);
+        return itemRequestClient.getRequestsByOwner(ownerId, from, size);
+    }
+
+    /**
+     * Сводка по запросам пользователя: количество запросов, открытых запросов и вещей, созданных по ним
+     */
+    @GetMapping("/summary")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<Object> getSummary(@RequestHeader(xSharerUserId) Long ownerId) {
+        log.info("GET /requests/summary: получен для ownerId = {}", ownerId);
+        return itemRequestClient.getSummary(ownerId);
+    }
+
+    /**
+     * Вещи, подходящие под запросы пользователя
+     *
+     * @param from смещение
+     * @param size размер страницы
+     * @return предложения от новых к старым
+     */
+    @GetMapping("/suggestions")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<Object> getSuggestions(@RequestHeader(xSharerUserId) Long ownerId,
+                                                 @RequestParam(value = "from", defaultValue = "0") @PositiveOrZero Integer from,
+                                                 @RequestParam(value = "size", defaultValue = "20") @Positive Integer size) {
+        log.info("GET /requests/suggestions: получен для ownerId = {}, from = {}, size = {}", ownerId, from, size);
+        return itemRequestClient.getSuggestions(ownerId, from, size);
+    }
+
+    /**
+     * Полнотекстовый поиск открытых чужих запросов по описанию
+     *
+     * @param text   текст запроса
+     * @param size   размер страницы
+     * @param cursor курсор из заголовка X-Next-Cursor предыдущего ответа, не задан для первой страницы
+     * @return запросы от более релевантных к менее релевантным
+     */
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<Object> searchRequests(@RequestHeader(xSharerUserId) Long userId,
+                                                 @RequestParam("text") String text,
+                                                 @RequestParam(value = "size", defaultValue = "20") @Positive Integer size,
+                                                 @RequestParam(value = "cursor", required = false) String cursor) {
+        log.info("GET /requests/search: получен для text = {}, size = {}, cursor = {} от пользователя id = {}",
+                text, size, cursor, userId);
+        return itemRequestClient.searchRequests(userId, text, size, cursor);
     }
 
     @GetMapping("/{requestId}")
@@ -49,13 +103,21 @@ public class ItemRequestController {
         return itemRequestClient.getRequestById(requestId, userRequestFromId);
     }
 
+    /**
+     * Получение чужих запросов
+     *
+     * @param cursor курсор из заголовка X-Next-Cursor предыдущего ответа, пустой для первой страницы ленты
+     * @return список запросов
+     */
     @GetMapping("/all")
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<Object> getAllRequests(@RequestParam(value = "from", defaultValue = "0") @PositiveOrZero Integer from,
                                                  @RequestParam(value = "size", defaultValue = "20") @Positive Integer size,
+                                                 @RequestParam(value = "cursor", required = false) String cursor,
                                                  @RequestHeader(xSharerUserId) Long userRequestFromId) {
-        log.info("GET /requests/all: получен для from = {}, size ={} от пользователя id =", from, size, userRequestFromId);
-        return itemRequestClient.getAllRequests(from, size, userRequestFromId);
+        log.info("GET /requests/all: получен для from = {}, size = {}, cursor = {} от пользователя id = {}",
+                from, size, cursor, userRequestFromId);
+        return itemRequestClient.getAllRequests(from, size, cursor, userRequestFromId);
     }
 }
 
@@ -3,13 +3,19 @@ package ru.practicum.shareit.booking.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.model.BookingBatchResultDto;
+import ru.practicum.shareit.booking.model.BookingDecisionDto;
+import ru.practicum.shareit.booking.model.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.model.BookingDtoAfterApproving;
 import ru.practicum.shareit.booking.model.BookingDtoAfterCreate;
 import ru.practicum.shareit.booking.model.BookingDtoOnCreate;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.user.model.UserBookingStates;
+import ru.practicum.shareit.utilities.models.Cursor;
+import ru.practicum.shareit.utilities.models.CursorPage;
 
 import java.util.List;
 
@@ -47,6 +53,21 @@ public class BookingController {
         return bookingService.createBooking(bookingDtoOnCreate, bookerId);
     }
 
+    /**
+     * Создание нескольких броней одним запросом
+     *
+     * @param bookerId    пользователь, который бронирует вещи
+     * @param bookingDtos бронируемые вещи
+     * @return результат по каждой брони пакета в исходном порядке
+     */
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<BookingBatchResultDto> createBookings(@RequestHeader(xSharerUserId) final Long bookerId,
+                                                      @RequestBody final List<BookingDtoOnCreate> bookingDtos) {
+        log.info("POST /bookings/batch получен для {} броней, от пользователя id = {}", bookingDtos.size(), bookerId);
+        return bookingService.createBookings(bookingDtos, bookerId);
+    }
+
     /**
      * Подтверждение бронирование
      *
@@ -63,6 +84,21 @@ public class BookingController {
         return bookingService.confirmBooking(bookingId, ownerId, approved);
     }
 
+    /**
+     * Подтверждение/отклонение нескольких броней владельцем одним запросом
+     *
+     * @param ownerId   id владельца вещей
+     * @param decisions решения по броням
+     * @return результат по каждому решению в исходном порядке
+     */
+    @PatchMapping("/approve")
+    @ResponseStatus(HttpStatus.OK)
+    public List<BookingDecisionResultDto> confirmBookings(@RequestHeader(xSharerUserId) final Long ownerId,
+                                                          @RequestBody final List<BookingDecisionDto> decisions) {
+        log.info("PATCH /bookings/approve получен для {} броней, от пользователя id = {}", decisions.size(), ownerId);
+        return bookingService.confirmBookings(decisions, ownerId);
+    }
+
     /**
      * Получение брони по id
      *
@@ -79,34 +115,60 @@ public class BookingController {
     }
 
     /**
-     * Получение списка броней, созданных пользователем
+     * Получение списка броней, созданных пользователем.
+     * Если передан cursor (пустой для первой страницы), выборка идет по ключу (start, id) без смещения,
+     * а курсор следующей страницы возвращается в заголовке X-Next-Cursor.
      *
      * @param userId        id пользователя, чьи брони необходимо вернуть
      * @param bookingsState выборка статуса брони
+     * @param cursor        курсор из заголовка X-Next-Cursor предыдущего ответа
      * @return список подходящих по статусу броней
      */
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<BookingDtoAfterCreate> getUserBookings(@RequestHeader(xSharerUserId) final Long userId,
-                                                       @RequestParam(value = "state", defaultValue = "ALL") String bookingsState,
-                                                       @RequestParam(value = "from", defaultValue = "0") Integer from,
-                                                       @RequestParam(value = "size", defaultValue = "20") Integer size) {
-        return bookingService.getUserBookings(userId, UserBookingStates.valueOf(bookingsState), from, size);
+    public ResponseEntity<List<BookingDtoAfterCreate>> getUserBookings(@RequestHeader(xSharerUserId) final Long userId,
+                                                                       @RequestParam(value = "state", defaultValue = "ALL") String bookingsState,
+                                                                       @RequestParam(value = "from", defaultValue = "0") Integer from,
+                                                                       @RequestParam(value = "size", defaultValue = "20") Integer size,
+                                                                       @RequestParam(value = "cursor", required = false) String cursor) {
+        UserBookingStates state = UserBookingStates.valueOf(bookingsState);
+
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getUserBookings(userId, state, from, size));
+        }
+        return toResponse(bookingService.getUserBookingsPage(userId, state, cursor, size));
     }
 
     /**
-     * Получение списка броней для вещей, которые принадлежат пользователю
+     * Получение списка броней для вещей, которые принадлежат пользователю.
+     * Постраничная выборка по курсору работает так же, как в {@link #getUserBookings}.
      *
      * @param ownerId       id владельца вещей
      * @param bookingsState выборка статуса вещей
+     * @param cursor        курсор из заголовка X-Next-Cursor предыдущего ответа
      * @return список подходящих по статусу вещей
      */
     @GetMapping("/owner")
     @ResponseStatus(HttpStatus.OK)
-    public List<BookingDtoAfterCreate> getBookingsByOwner(@RequestHeader(xSharerUserId) final Long ownerId,
-                                                          @RequestParam(value = "state", defaultValue = "ALL") String bookingsState,
-                                                          @RequestParam(value = "from", defaultValue = "0") Integer from,
-                                                          @RequestParam(value = "size", defaultValue = "20") Integer size) {
-        return bookingService.getBookingsByOwner(ownerId, UserBookingStates.valueOf(bookingsState), from, size);
+    public ResponseEntity<List<BookingDtoAfterCreate>> getBookingsByOwner(@RequestHeader(xSharerUserId) final Long ownerId,
+                                                                          @RequestParam(value = "state", defaultValue = "ALL") String bookingsState,
+                                                                          @RequestParam(value = "from", defaultValue = "0") Integer from,
+                                                                          @RequestParam(value = "size", defaultValue = "20") Integer size,
+                                                                          @RequestParam(value = "cursor", required = false) String cursor) {
+        UserBookingStates state = UserBookingStates.valueOf(bookingsState);
+
+        if (cursor == null) {
+            return ResponseEntity.ok(bookingService.getBookingsByOwner(ownerId, state, from, size));
+        }
+        return toResponse(bookingService.getBookingsByOwnerPage(ownerId, state, cursor, size));
+    }
+
+    private static ResponseEntity<List<BookingDtoAfterCreate>> toResponse(CursorPage<BookingDtoAfterCreate> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        if (page.getNextCursor() != null) {
+            response.header(Cursor.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
     }
 }
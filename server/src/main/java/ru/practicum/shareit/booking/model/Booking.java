@@ -36,12 +36,12 @@ public class Booking {
     /**
      * Что бронируется (объект типа Item)
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Item item;
     /**
      * Кто бронирует (объект типа User)
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private User booker;
     /**
      * Статус брони
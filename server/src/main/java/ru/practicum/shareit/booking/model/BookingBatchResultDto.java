@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат обработки одной брони из пакета: либо созданная бронь, либо причина отказа
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingBatchResultDto {
+    /**
+     * Порядковый номер брони в пакете (с нуля)
+     */
+    private int index;
+    private BookingDtoAfterCreate booking;
+    private String error;
+
+    public static BookingBatchResultDto created(int index, BookingDtoAfterCreate booking) {
+        return new BookingBatchResultDto(index, booking, null);
+    }
+
+    public static BookingBatchResultDto failed(int index, String error) {
+        return new BookingBatchResultDto(index, null, error);
+    }
+}
@@ -1,12 +1,14 @@
 package ru.practicum.shareit.booking.model;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import ru.practicum.shareit.item.model.ItemDto;
 import ru.practicum.shareit.user.model.UserDto;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
 public class BookingDtoAfterCreate {
     Long id;
     private LocalDateTime start;
@@ -14,4 +16,26 @@ public class BookingDtoAfterCreate {
     Status status;
     ItemDto item;
     UserDto booker;
+
+    /**
+     * Конструктор для JPQL-выражения select new: брони списком читаются сразу в DTO, без загрузки сущностей
+     */
+    public BookingDtoAfterCreate(Long id, LocalDateTime start, LocalDateTime end, Status status,
+                                 Long itemId, String itemName, String itemDescription, Boolean itemAvailable,
+                                 Long itemRequestId, Long bookerId, String bookerName, String bookerEmail) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.status = status;
+        this.item = new ItemDto();
+        this.item.setId(itemId);
+        this.item.setName(itemName);
+        this.item.setDescription(itemDescription);
+        this.item.setAvailable(itemAvailable);
+        this.item.setRequestId(itemRequestId);
+        this.booker = new UserDto();
+        this.booker.setId(bookerId);
+        this.booker.setName(bookerName);
+        this.booker.setEmail(bookerEmail);
+    }
 }
@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.model;
+
+/**
+ * Проекция брони: период и id забронированной вещи
+ */
+public interface BookingItemPeriod extends BookingPeriod {
+    Long getItemId();
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Проекция брони: только период, без вещи и пользователя
+ */
+public interface BookingPeriod {
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.user.model.UserBookingStates;
+
+import java.time.LocalDateTime;
+
+/**
+ * Параметры выборки списка броней. Обязательны роль, пользователь, выборка по статусу и момент времени,
+ * относительно которого определяются текущие, прошедшие и будущие брони. Ключ keyset-выборки необязателен:
+ * если он не задан, условие не попадает в SQL.
+ */
+@Getter
+@Setter
+@ToString
+public class BookingQuery {
+    /**
+     * Брони пользователя как бронирующего или как владельца вещей
+     */
+    private final BookingRole role;
+    private final Long userId;
+    private final UserBookingStates state;
+    /**
+     * Момент, вычисленный один раз на запрос
+     */
+    private final LocalDateTime now;
+    /**
+     * Смещение и размер страницы
+     */
+    private Pageable page = Pageable.unpaged();
+    /**
+     * Ключ (start, id) последней брони предыдущей страницы для keyset-выборки
+     */
+    private LocalDateTime afterStart;
+    private Long afterId;
+
+    private BookingQuery(BookingRole role, Long userId, UserBookingStates state, LocalDateTime now) {
+        this.role = role;
+        this.userId = userId;
+        this.state = state;
+        this.now = now;
+    }
+
+    public static BookingQuery of(BookingRole role, Long userId, UserBookingStates state, LocalDateTime now) {
+        return new BookingQuery(role, userId, state, now);
+    }
+}
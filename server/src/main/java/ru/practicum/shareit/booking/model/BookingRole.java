@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.model;
+
+/**
+ * Чьи брони выбираются: созданные пользователем или брони его вещей
+ */
+public enum BookingRole {
+    BOOKER,
+    OWNER
+}
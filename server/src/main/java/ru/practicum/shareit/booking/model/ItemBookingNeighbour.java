@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Прошлая или следующая бронь вещи относительно момента времени
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ItemBookingNeighbour {
+    private final Long itemId;
+    /**
+     * true для следующей брони, false для прошлой
+     */
+    private final boolean next;
+    private final Long id;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final Long bookerId;
+}
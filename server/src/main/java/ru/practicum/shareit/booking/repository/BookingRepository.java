@@ -1,39 +1,71 @@
 package ru.practicum.shareit.booking.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingItemPeriod;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
     List<Booking> findAllByItemAndStatus(Item item, Status status, Pageable pageable);
 
-    List<Booking> findAllByBookerOrderByStartDesc(User booker, Pageable pageable);
+    /**
+     * Получение брони вместе с вещью одним запросом
+     *
+     * @param bookingId id брони
+     * @return бронь
+     */
+    @EntityGraph(attributePaths = "item")
+    Optional<Booking> findWithItemById(Long bookingId);
 
-    List<Booking> findAllByBookerAndStartAfterOrderByStartDesc(User booker, LocalDateTime start, Pageable pageable);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Booking b where b.id = :bookingId")
+    Optional<Booking> findByIdForUpdate(@Param("bookingId") Long bookingId);
 
-    List<Booking> findAllByBookerAndEndBeforeOrderByStartDesc(User booker, LocalDateTime end, Pageable pageable);
+    /**
+     * Блокировка строк броней до конца транзакции в порядке id, без загрузки сущностей
+     *
+     * @param bookingIds id броней
+     * @return id найденных броней
+     */
+    @Query(value = "SELECT id FROM bookings WHERE id IN (:bookingIds) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Number> lockAllById(@Param("bookingIds") Collection<Long> bookingIds);
 
-    List<Booking> findAllByBookerAndStatus(User booker, Status status, Pageable pageable);
+    /**
+     * Брони вместе с вещами, их владельцами и бронирующими пользователями одним запросом
+     *
+     * @param bookingIds id броней
+     * @return найденные брони
+     */
+    @Query("select b from Booking b join fetch b.item i join fetch i.owner join fetch b.booker where b.id in :bookingIds")
+    List<Booking> findAllWithItemById(@Param("bookingIds") Collection<Long> bookingIds);
 
-    List<Booking> findAllByItem_OwnerOrderByStartDesc(User owner, Pageable pageable);
-
-    List<Booking> findAllByItem_OwnerAndStartAfterOrderByStartDesc(User owner, LocalDateTime start, Pageable pageable);
-
-    List<Booking> findAllByItem_OwnerAndEndBeforeOrderByStartDesc(User owner, LocalDateTime end, Pageable pageable);
-
-    List<Booking> findAllByItem_OwnerAndStatus(User owner, Status status, Pageable pageable);
-
-    List<Booking> findAllByItem_IdIn(List<Long> itemsId, Pageable pageable);
+    /**
+     * Подтвержденные брони нескольких вещей, пересекающиеся с периодом [from, to), одним запросом
+     *
+     * @param itemIds id вещей
+     * @param from    начало периода
+     * @param to      конец периода
+     * @return периоды броней с id вещи
+     */
+    @Query("select b.item.id as itemId, b.start as start, b.end as end from Booking b " +
+            "where b.item.id in :itemIds and b.status = ru.practicum.shareit.booking.model.Status.APPROVED " +
+            "and b.start < :to and b.end > :from")
+    List<BookingItemPeriod> findApprovedPeriods(@Param("itemIds") Collection<Long> itemIds,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
 
     List<Booking> findAllByBookerAndItemAndStartBefore(User booker, Item item, LocalDateTime start, Pageable pageable);
-
-    List<Booking> findAllByBookerAndStartBeforeAndEndAfterOrderByStartDesc(User booker, LocalDateTime start, LocalDateTime end, Pageable pageable);
-
-    List<Booking> findAllByItem_OwnerAndStartBeforeAndEndAfterOrderByStartDesc(User owner, LocalDateTime start, LocalDateTime end, Pageable pageable);
 }
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDtoAfterCreate;
+import ru.practicum.shareit.booking.model.BookingQuery;
+import ru.practicum.shareit.booking.model.ItemBookingNeighbour;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Запросы к броням, которые не выражаются через методы Spring Data
+ */
+public interface BookingRepositoryCustom {
+    /**
+     * Проверка, пересекается ли период [start, end) с подтвержденной бронью вещи.
+     * Выполняется в БД одним запросом по индексу, брони в память не загружаются.
+     *
+     * @param itemId id вещи
+     * @param start  начало периода
+     * @param end    конец периода
+     * @return true, если есть подтвержденная бронь на часть периода
+     */
+    boolean existsApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Сохранение броней пакетами JDBC (Hibernate не группирует вставки при IDENTITY-ключах).
+     * Сгенерированные id проставляются в переданные брони, в контекст персистентности брони не попадают.
+     *
+     * @param bookings новые брони с заполненными вещью и пользователем
+     */
+    void insertAll(List<Booking> bookings);
+
+    /**
+     * Запись статусов броней одним пакетом JDBC.
+     * Брони отсоединяются от контекста персистентности, чтобы Hibernate не повторял обновление при сбросе.
+     *
+     * @param bookings брони с уже измененным статусом
+     */
+    void updateStatuses(List<Booking> bookings);
+
+    /**
+     * Брони пользователя сразу в виде DTO, одним запросом с соединением вещи и бронирующего,
+     * в порядке (start, id) по убыванию. Если в выборке задан ключ последней брони предыдущей страницы,
+     * строки читаются после него без смещения. Для бронирующего стоимость любой страницы одинакова:
+     * выборка идет диапазоном по индексу (booker_id, start_booking, id). Для владельца брони всех его вещей
+     * соединяются с вещами и сортируются, поэтому стоимость страницы растет с числом броней владельца
+     * (без затрат на пропуск строк, как при смещении).
+     *
+     * @param query параметры выборки
+     * @return DTO броней
+     */
+    List<BookingDtoAfterCreate> findBookingDtos(BookingQuery query);
+
+    /**
+     * Прошлая и следующая брони (APPROVED или WAITING) каждой вещи относительно момента времени одним запросом.
+     * Прошлая - с наибольшим началом раньше момента, следующая - с наименьшим началом позже момента;
+     * при равном начале берется бронь с меньшим id. Остальные брони вещей из БД не читаются.
+     *
+     * @param itemIds id вещей
+     * @param moment  момент времени
+     * @return не больше двух броней на вещь
+     */
+    List<ItemBookingNeighbour> findLastAndNextBookings(Collection<Long> itemIds, LocalDateTime moment);
+}
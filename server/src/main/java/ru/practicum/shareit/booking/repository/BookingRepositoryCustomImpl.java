@@ -0,0 +1,260 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.Session;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDtoAfterCreate;
+import ru.practicum.shareit.booking.model.BookingQuery;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.ItemBookingNeighbour;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.config.SqlFunctions;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utilities.DatabasePlatform;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    /*
+    в PostgreSQL пересечение проверяется оператором && по GiST-индексу bookings_item_period_approved_idx
+     */
+    private static final String OVERLAP_POSTGRESQL = "SELECT 1 FROM bookings " +
+            "WHERE item_id = :itemId AND status = 'APPROVED' " +
+            "AND tsrange(start_booking, greatest(start_booking, end_booking)) && tsrange(:start, :end)";
+    private static final String OVERLAP_PORTABLE = "SELECT 1 FROM bookings " +
+            "WHERE item_id = :itemId AND status = 'APPROVED' " +
+            "AND start_booking < :end AND end_booking > :start";
+    private static final String INSERT = "INSERT INTO bookings (start_booking, end_booking, item_id, booker_id, status) " +
+            "VALUES (?, ?, ?, ?, ?)";
+    private static final String UPDATE_STATUS = "UPDATE bookings SET status = ? WHERE id = ?";
+    private static final int BATCH_SIZE = 100;
+    /*
+    ROW_NUMBER() одинаково работает в PostgreSQL и H2; для каждой вещи остается первая строка
+    в порядке индекса (item_id, start_booking), остальные брони до приложения не доходят
+     */
+    private static final String LAST_AND_NEXT = "SELECT item_id, is_next, id, start_booking, end_booking, booker_id " +
+            "FROM (" +
+            "SELECT item_id, TRUE AS is_next, id, start_booking, end_booking, booker_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY start_booking, id) AS rn " +
+            "FROM bookings WHERE item_id IN (:itemIds) AND status IN ('APPROVED', 'WAITING') " +
+            "AND start_booking > :moment " +
+            "UNION ALL " +
+            "SELECT item_id, FALSE AS is_next, id, start_booking, end_booking, booker_id, " +
+            "ROW_NUMBER() OVER (PARTITION BY item_id ORDER BY start_booking DESC, id) AS rn " +
+            "FROM bookings WHERE item_id IN (:itemIds) AND status IN ('APPROVED', 'WAITING') " +
+            "AND start_booking < :moment" +
+            ") neighbours WHERE rn = 1";
+    private final String overlapQuery;
+    @PersistenceContext
+    private EntityManager em;
+
+    public BookingRepositoryCustomImpl(DataSource dataSource) {
+        this.overlapQuery = DatabasePlatform.of(dataSource) == DatabasePlatform.POSTGRESQL
+                ? OVERLAP_POSTGRESQL
+                : OVERLAP_PORTABLE;
+    }
+
+    @Override
+    public boolean existsApprovedOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) return false;
+
+        return !em.createNativeQuery(overlapQuery)
+                .setParameter("itemId", itemId)
+                .setParameter("start", start)
+                .setParameter("end", end)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    @Override
+    public void insertAll(List<Booking> bookings) {
+        if (bookings.isEmpty()) return;
+        /*
+        вещи и пользователи должны попасть в БД раньше броней, ссылающихся на них
+         */
+        em.flush();
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT, new String[]{"id"})) {
+                for (int from = 0; from < bookings.size(); from += BATCH_SIZE) {
+                    List<Booking> chunk = bookings.subList(from, Math.min(from + BATCH_SIZE, bookings.size()));
+
+                    for (Booking booking : chunk) {
+                        statement.setObject(1, booking.getStart());
+                        statement.setObject(2, booking.getEnd());
+                        statement.setLong(3, booking.getItem().getId());
+                        statement.setLong(4, booking.getBooker().getId());
+                        statement.setString(5, booking.getStatus().name());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        for (Booking booking : chunk) {
+                            if (!keys.next()) throw new IllegalStateException("БД не вернула id сохраненной брони");
+                            booking.setId(keys.getLong(1));
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public void updateStatuses(List<Booking> bookings) {
+        if (bookings.isEmpty()) return;
+        /*
+        отсоединенные брони не попадут в dirty checking, их статус пишется только пакетом ниже
+         */
+        bookings.forEach(em::detach);
+        em.flush();
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE_STATUS)) {
+                for (int from = 0; from < bookings.size(); from += BATCH_SIZE) {
+                    for (Booking booking : bookings.subList(from, Math.min(from + BATCH_SIZE, bookings.size()))) {
+                        statement.setString(1, booking.getStatus().name());
+                        statement.setLong(2, booking.getId());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            }
+        });
+    }
+
+    @Override
+    public List<BookingDtoAfterCreate> findBookingDtos(BookingQuery bookingQuery) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<BookingDtoAfterCreate> criteria = cb.createQuery(BookingDtoAfterCreate.class);
+        Root<Booking> booking = criteria.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        Join<Booking, User> booker = booking.join("booker");
+        Parameters parameters = new Parameters(cb);
+        /*
+        выбираются только колонки DTO: сущности, комментарии вещей и ModelMapper не участвуют
+         */
+        criteria.select(cb.construct(BookingDtoAfterCreate.class,
+                booking.get("id"), booking.get("start"), booking.get("end"), booking.get("status"),
+                item.get("id"), item.get("name"), item.get("description"), item.get("available"), item.get("requestId"),
+                booker.get("id"), booker.get("name"), booker.get("email")));
+        criteria.where(predicates(bookingQuery, cb, parameters, booking, item, booker).toArray(new Predicate[0]));
+        criteria.orderBy(cb.desc(booking.get("start")), cb.desc(booking.get("id")));
+
+        TypedQuery<BookingDtoAfterCreate> query = em.createQuery(criteria);
+
+        parameters.bindTo(query);
+        if (bookingQuery.getPage().isPaged()) {
+            query.setFirstResult((int) bookingQuery.getPage().getOffset())
+                    .setMaxResults(bookingQuery.getPage().getPageSize());
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * Условия выборки. Каждое условие сравнивает колонку с параметром, без функций над колонками,
+     * поэтому подходят индексы (booker_id, start_booking, id) и (item_id, start_booking, id).
+     */
+    private static List<Predicate> predicates(BookingQuery query, CriteriaBuilder cb, Parameters parameters,
+                                              Root<Booking> booking, Join<Booking, Item> item,
+                                              Join<Booking, User> booker) {
+        List<Predicate> predicates = new ArrayList<>();
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<Long> id = booking.get("id");
+
+        predicates.add(query.getRole() == BookingRole.BOOKER
+                ? cb.equal(booker.get("id"), parameters.of("userId", Long.class, query.getUserId()))
+                : cb.equal(item.get("owner").get("id"), parameters.of("userId", Long.class, query.getUserId())));
+        switch (query.getState()) {
+            case ALL:
+                break;
+            case CURRENT: {
+                ParameterExpression<LocalDateTime> now = parameters.of("now", LocalDateTime.class, query.getNow());
+
+                predicates.add(cb.lessThan(start, now));
+                predicates.add(cb.greaterThan(end, now));
+                break;
+            }
+            case PAST:
+                predicates.add(cb.lessThan(end, parameters.of("now", LocalDateTime.class, query.getNow())));
+                break;
+            case FUTURE:
+                predicates.add(cb.greaterThan(start, parameters.of("now", LocalDateTime.class, query.getNow())));
+                break;
+            default:
+                predicates.add(cb.equal(booking.get("status"),
+                        parameters.of("status", Status.class, Status.valueOf(query.getState().name()))));
+        }
+        /*
+        сравнение кортежей (start, id) < (afterStart, afterId) вместо раскрытия в OR: в PostgreSQL оно
+        становится одной границей диапазона по индексу (booker_id, start_booking DESC, id DESC)
+         */
+        if (query.getAfterStart() != null) {
+            predicates.add(cb.isTrue(cb.function(SqlFunctions.KEYSET_BEFORE, Boolean.class, start, id,
+                    parameters.of("afterStart", LocalDateTime.class, query.getAfterStart()),
+                    parameters.of("afterId", Long.class, query.getAfterId()))));
+        }
+        return predicates;
+    }
+
+    @Override
+    public List<ItemBookingNeighbour> findLastAndNextBookings(Collection<Long> itemIds, LocalDateTime moment) {
+        if (itemIds.isEmpty()) return List.of();
+
+        List<?> rows = em.createNativeQuery(LAST_AND_NEXT)
+                .setParameter("itemIds", itemIds)
+                .setParameter("moment", moment)
+                .getResultList();
+        List<ItemBookingNeighbour> neighbours = new ArrayList<>(rows.size());
+
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+
+            neighbours.add(new ItemBookingNeighbour(
+                    ((Number) columns[0]).longValue(),
+                    (Boolean) columns[1],
+                    ((Number) columns[2]).longValue(),
+                    toLocalDateTime(columns[3]),
+                    toLocalDateTime(columns[4]),
+                    ((Number) columns[5]).longValue()));
+        }
+        return neighbours;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp ? ((Timestamp) value).toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    /**
+     * Именованные параметры запроса: значения не подставляются в SQL литералами,
+     * поэтому текст запроса и план выполнения не зависят от значений
+     */
+    private static class Parameters {
+        private final CriteriaBuilder cb;
+        private final Map<ParameterExpression<?>, Object> values = new HashMap<>();
+
+        Parameters(CriteriaBuilder cb) {
+            this.cb = cb;
+        }
+
+        <T> ParameterExpression<T> of(String name, Class<T> type, T value) {
+            ParameterExpression<T> parameter = cb.parameter(type, name);
+
+            values.put(parameter, value);
+            return parameter;
+        }
+
+        @SuppressWarnings("unchecked")
+        void bindTo(TypedQuery<?> query) {
+            values.forEach((parameter, value) -> query.setParameter((ParameterExpression<Object>) parameter, value));
+        }
+    }
+}
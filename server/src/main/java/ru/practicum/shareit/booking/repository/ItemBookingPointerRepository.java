@@ -0,0 +1,191 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.booking.model.ItemBookingNeighbour;
+import ru.practicum.shareit.utilities.DatabasePlatform;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Таблица item_booking_pointers: id прошлой и следующей брони каждой вещи и момент, до которого они актуальны
+ * (начало следующей брони). Строки пересчитываются при изменении броней вещи и когда наступает valid_until.
+ */
+@Repository
+public class ItemBookingPointerRepository {
+    private static final String SELECT = "SELECT p.item_id, p.valid_until, " +
+            "p.last_booking_id, lb.id AS last_id, lb.start_booking AS last_start, lb.end_booking AS last_end, " +
+            "lb.booker_id AS last_booker_id, " +
+            "p.next_booking_id, nb.id AS next_id, nb.start_booking AS next_start, nb.end_booking AS next_end, " +
+            "nb.booker_id AS next_booker_id " +
+            "FROM item_booking_pointers p " +
+            "LEFT JOIN bookings lb ON lb.id = p.last_booking_id " +
+            "LEFT JOIN bookings nb ON nb.id = p.next_booking_id " +
+            "WHERE p.item_id IN (:itemIds)";
+    private static final String UPSERT_POSTGRESQL = "INSERT INTO item_booking_pointers " +
+            "(item_id, last_booking_id, next_booking_id, valid_until) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (item_id) DO UPDATE SET last_booking_id = EXCLUDED.last_booking_id, " +
+            "next_booking_id = EXCLUDED.next_booking_id, valid_until = EXCLUDED.valid_until";
+    private static final String UPSERT_H2 = "MERGE INTO item_booking_pointers " +
+            "(item_id, last_booking_id, next_booking_id, valid_until) KEY (item_id) VALUES (?, ?, ?, ?)";
+    private static final String EXPIRED = "SELECT item_id FROM item_booking_pointers " +
+            "WHERE valid_until <= :now ORDER BY valid_until LIMIT :limit FOR UPDATE";
+    /*
+    строки, заблокированные другим узлом или транзакцией, изменившей брони, пропускаются: их указатели
+    пересчитает та транзакция
+     */
+    private static final String EXPIRED_POSTGRESQL = EXPIRED + " SKIP LOCKED";
+    /*
+    блокируются строки вещей, как при изменении броней: указатели вещи записывает только владелец этой блокировки
+     */
+    private static final String MISSING = "SELECT i.id FROM items i WHERE NOT EXISTS " +
+            "(SELECT 1 FROM item_booking_pointers p WHERE p.item_id = i.id) ORDER BY i.id LIMIT :limit FOR UPDATE";
+    private static final String MISSING_POSTGRESQL = MISSING + " SKIP LOCKED";
+    private final String upsert;
+    private final String expired;
+    private final String missing;
+    @PersistenceContext
+    private EntityManager em;
+
+    public ItemBookingPointerRepository(DataSource dataSource) {
+        boolean postgresql = DatabasePlatform.of(dataSource) == DatabasePlatform.POSTGRESQL;
+
+        this.upsert = postgresql ? UPSERT_POSTGRESQL : UPSERT_H2;
+        this.expired = postgresql ? EXPIRED_POSTGRESQL : EXPIRED;
+        this.missing = postgresql ? MISSING_POSTGRESQL : MISSING;
+    }
+
+    /**
+     * Прошлые и следующие брони вещей по сохраненным указателям, одним запросом по первичным ключам
+     *
+     * @param itemIds id вещей
+     * @param now     текущий момент
+     * @return указатели вещей, для которых строка есть и еще актуальна; вещей без строки или с устаревшей строкой
+     * в результате нет
+     */
+    public Map<Long, List<ItemBookingNeighbour>> findValid(Collection<Long> itemIds, LocalDateTime now) {
+        if (itemIds.isEmpty()) return Map.of();
+
+        List<?> rows = em.createNativeQuery(SELECT)
+                .setParameter("itemIds", itemIds)
+                .getResultList();
+        Map<Long, List<ItemBookingNeighbour>> pointers = new HashMap<>();
+
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+            Long itemId = ((Number) columns[0]).longValue();
+            LocalDateTime validUntil = toLocalDateTime(columns[1]);
+            /*
+            бронь, на которую указывает строка, могла быть удалена: такая строка тоже считается устаревшей
+             */
+            boolean lastMissing = columns[2] != null && columns[3] == null;
+            boolean nextMissing = columns[7] != null && columns[8] == null;
+
+            if (validUntil != null && !validUntil.isAfter(now) || lastMissing || nextMissing) continue;
+
+            List<ItemBookingNeighbour> neighbours = new ArrayList<>(2);
+
+            if (columns[3] != null) neighbours.add(toNeighbour(itemId, false, columns, 3));
+            if (columns[8] != null) neighbours.add(toNeighbour(itemId, true, columns, 8));
+            pointers.put(itemId, neighbours);
+        }
+        return pointers;
+    }
+
+    /**
+     * Сохранение указателей вещей одним пакетом JDBC (вставка или замена строки)
+     *
+     * @param itemIds    id вещей, для которых пересчитаны указатели
+     * @param neighbours прошлые и следующие брони этих вещей
+     */
+    public void saveAll(Collection<Long> itemIds, List<ItemBookingNeighbour> neighbours) {
+        if (itemIds.isEmpty()) return;
+
+        Map<Long, ItemBookingNeighbour> last = new HashMap<>();
+        Map<Long, ItemBookingNeighbour> next = new HashMap<>();
+
+        for (ItemBookingNeighbour neighbour : neighbours) {
+            (neighbour.isNext() ? next : last).put(neighbour.getItemId(), neighbour);
+        }
+        em.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(upsert)) {
+                for (Long itemId : itemIds) {
+                    ItemBookingNeighbour lastBooking = last.get(itemId);
+                    ItemBookingNeighbour nextBooking = next.get(itemId);
+
+                    statement.setLong(1, itemId);
+                    setNullableLong(statement, 2, lastBooking == null ? null : lastBooking.getId());
+                    setNullableLong(statement, 3, nextBooking == null ? null : nextBooking.getId());
+                    statement.setObject(4, nextBooking == null ? null : nextBooking.getStart(), Types.TIMESTAMP);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        });
+    }
+
+    /**
+     * Вещи, у которых наступило начало следующей брони: она стала прошлой, и указатели нужно сдвинуть.
+     * Строки блокируются до конца транзакции, чтобы пересчет не затер указатели, записанные одновременно
+     * транзакцией, изменившей брони вещи; в PostgreSQL уже заблокированные строки пропускаются.
+     *
+     * @param now   текущий момент
+     * @param limit максимальное количество вещей
+     * @return id вещей
+     */
+    public List<Long> lockExpired(LocalDateTime now, int limit) {
+        return toIds(em.createNativeQuery(expired)
+                .setParameter("now", now)
+                .setParameter("limit", limit)
+                .getResultList());
+    }
+
+    /**
+     * Вещи без строки указателей (созданные до появления таблицы или в обход сервиса).
+     * Строки вещей блокируются до конца транзакции; в PostgreSQL уже заблокированные вещи пропускаются.
+     *
+     * @param limit максимальное количество вещей
+     * @return id вещей по возрастанию
+     */
+    public List<Long> lockMissing(int limit) {
+        return toIds(em.createNativeQuery(missing)
+                .setParameter("limit", limit)
+                .getResultList());
+    }
+
+    private static List<Long> toIds(List<?> rows) {
+        List<Long> itemIds = new ArrayList<>(rows.size());
+
+        for (Object row : rows) {
+            itemIds.add(((Number) row).longValue());
+        }
+        return itemIds;
+    }
+
+    private static ItemBookingNeighbour toNeighbour(Long itemId, boolean next, Object[] columns, int from) {
+        return new ItemBookingNeighbour(itemId, next,
+                ((Number) columns[from]).longValue(),
+                toLocalDateTime(columns[from + 1]),
+                toLocalDateTime(columns[from + 2]),
+                ((Number) columns[from + 3]).longValue());
+    }
+
+    private static void setNullableLong(PreparedStatement statement, int index, Long value) throws java.sql.SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp ? ((Timestamp) value).toLocalDateTime() : (LocalDateTime) value;
+    }
+}
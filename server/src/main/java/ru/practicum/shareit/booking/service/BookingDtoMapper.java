@@ -8,6 +8,7 @@ import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingDtoAfterApproving;
 import ru.practicum.shareit.booking.model.BookingDtoAfterCreate;
 import ru.practicum.shareit.booking.model.BookingDtoOnCreate;
+import ru.practicum.shareit.booking.model.ItemBookingNeighbour;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.ItemInfoDto;
 import ru.practicum.shareit.item.service.ItemDtoMapper;
@@ -62,4 +63,14 @@ public class BookingDtoMapper {
         if (booking == null) return null;
         return mapper.map(booking, ItemInfoDto.BookingDto.class);
     }
+
+    public ItemInfoDto.BookingDto toDtoForItemInfo(ItemBookingNeighbour neighbour) {
+        ItemInfoDto.BookingDto bookingDto = new ItemInfoDto.BookingDto();
+
+        bookingDto.setId(neighbour.getId());
+        bookingDto.setStart(neighbour.getStart());
+        bookingDto.setEnd(neighbour.getEnd());
+        bookingDto.setBookerId(neighbour.getBookerId());
+        return bookingDto;
+    }
 }
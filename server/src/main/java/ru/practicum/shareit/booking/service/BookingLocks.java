@@ -0,0 +1,91 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exception.model.ItemNotAvailableException;
+import ru.practicum.shareit.utilities.TransactionHooks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Полосатые (striped) блокировки вещей на время создания и подтверждения броней внутри узла.
+ * Вещь блокируется до конца текущей транзакции, брони разных вещей обрабатываются параллельно.
+ * Между узлами порядок обеспечивает блокировка строки вещи в БД (ItemRepository.findByIdForUpdate).
+ */
+@Component
+@Slf4j
+public class BookingLocks {
+    private final ReentrantLock[] stripes;
+    private final long timeoutMs;
+
+    public BookingLocks(@Value("${shareit.bookings.lock-stripes:256}") int stripesCount,
+                        @Value("${shareit.bookings.lock-timeout-ms:5000}") long timeoutMs) {
+        this.stripes = new ReentrantLock[stripesCount];
+        this.timeoutMs = timeoutMs;
+        for (int i = 0; i < stripesCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Блокировка вещи до завершения текущей транзакции
+     *
+     * @param itemId id вещи
+     */
+    public void lockItem(Long itemId) {
+        lockItems(List.of(itemId));
+    }
+
+    /**
+     * Блокировка нескольких вещей до завершения текущей транзакции.
+     * Полосы захватываются в порядке возрастания номера, поэтому пересекающиеся наборы не дают взаимной блокировки.
+     *
+     * @param itemIds id вещей
+     */
+    public void lockItems(Collection<Long> itemIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Блокировка вещей возможна только внутри транзакции");
+        }
+        int[] stripeIndexes = itemIds.stream()
+                .mapToInt(this::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+        List<ReentrantLock> acquired = new ArrayList<>();
+
+        try {
+            for (int stripeIndex : stripeIndexes) {
+                ReentrantLock lock = stripes[stripeIndex];
+
+                if (!lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    throw new ItemNotAvailableException("Вещь сейчас бронируется другим пользователем, повторите запрос");
+                }
+                acquired.add(lock);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(acquired);
+            throw new IllegalStateException("Ожидание блокировки вещи прервано", e);
+        } catch (RuntimeException e) {
+            release(acquired);
+            throw e;
+        }
+        TransactionHooks.afterCompletion(() -> release(acquired));
+    }
+
+    private int stripeOf(Long itemId) {
+        return Math.floorMod(Long.hashCode(itemId), stripes.length);
+    }
+
+    private static void release(List<ReentrantLock> locks) {
+        for (ReentrantLock lock : locks) {
+            lock.unlock();
+        }
+    }
+}
@@ -1,21 +1,33 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.model.BookingBatchResultDto;
+import ru.practicum.shareit.booking.model.BookingDecisionDto;
+import ru.practicum.shareit.booking.model.BookingDecisionResultDto;
 import ru.practicum.shareit.booking.model.BookingDtoAfterApproving;
 import ru.practicum.shareit.booking.model.BookingDtoAfterCreate;
 import ru.practicum.shareit.booking.model.BookingDtoOnCreate;
 import ru.practicum.shareit.user.model.UserBookingStates;
+import ru.practicum.shareit.utilities.models.CursorPage;
 
 import java.util.List;
 
 public interface BookingService {
     BookingDtoAfterCreate createBooking(BookingDtoOnCreate bookingDto, Long bookerId);
 
+    List<BookingBatchResultDto> createBookings(List<BookingDtoOnCreate> bookingDtos, Long bookerId);
+
     BookingDtoAfterApproving confirmBooking(Long bookingId, Long ownerId, Boolean isApproved);
 
+    List<BookingDecisionResultDto> confirmBookings(List<BookingDecisionDto> decisions, Long ownerId);
+
     BookingDtoAfterApproving getBookingById(Long bookingId, Long userRequestFrom);
 
     List<BookingDtoAfterCreate> getUserBookings(Long userId, UserBookingStates state, Integer from, Integer size);
 
     List<BookingDtoAfterCreate> getBookingsByOwner(Long ownerId, UserBookingStates state, Integer from, Integer size);
 
+    CursorPage<BookingDtoAfterCreate> getUserBookingsPage(Long userId, UserBookingStates state, String cursor, Integer size);
+
+    CursorPage<BookingDtoAfterCreate> getBookingsByOwnerPage(Long ownerId, UserBookingStates state, String cursor, Integer size);
+
 }
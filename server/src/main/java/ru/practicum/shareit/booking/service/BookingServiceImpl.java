@@ -2,7 +2,6 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,30 +12,35 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.UserBookingStates;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilities.EntityCache;
+import ru.practicum.shareit.utilities.models.Cursor;
+import ru.practicum.shareit.utilities.models.CursorPage;
 import ru.practicum.shareit.utilities.models.Page;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BookingServiceImpl implements BookingService {
-    private final UserRepository userRepository;
+    private static final BookingTimeline EMPTY_TIMELINE = new BookingTimeline();
+    private final EntityCache<User> userCache;
     private final ItemRepository itemRepository;
     private final BookingDtoMapper mapper;
     private final BookingRepository bookingRepository;
+    private final BookingLocks locks;
+    private final ItemBookingPointers pointers;
 
     @Override
     @Transactional
     public BookingDtoAfterCreate createBooking(BookingDtoOnCreate bookingDto, Long bookerId) {
-        User booker = userRepository.findById(bookerId)
+        User booker = userCache.reference(bookerId)
                 .orElseThrow(() -> new NotFoundException("Не найден пользователь с id = " + bookerId));
         Booking booking = mapper.fromDtoOnCreate(bookingDto);
-        long itemId = booking.getItem().getId();
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("Не найден Item с id = " + bookerId));
+        Item item = lockItem(booking.getItem().getId());
 
         checkItemIsAvailable(item);
         checkItemCanBeBookedForTime(item, booking.getStart(), booking.getEnd());
@@ -49,18 +53,83 @@ public class BookingServiceImpl implements BookingService {
 
         Booking savedBooking = bookingRepository.save(booking);
 
+        pointers.refresh(List.of(item.getId()));
         log.info("Сохранена бронь: {}", savedBooking);
         return mapper.toDtoAfterCreate(savedBooking);
     }
 
     @Override
+    @Transactional
+    public List<BookingBatchResultDto> createBookings(List<BookingDtoOnCreate> bookingDtos, Long bookerId) {
+        User booker = userCache.reference(bookerId)
+                .orElseThrow(() -> new NotFoundException("Не найден пользователь с id = " + bookerId));
+        Set<Long> itemIds = bookingDtos.stream()
+                .map(BookingDtoOnCreate::getItemId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(TreeSet::new));
+        Map<Long, Item> items = lockItems(itemIds);
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+
+        for (BookingDtoOnCreate bookingDto : bookingDtos) {
+            if (!items.containsKey(bookingDto.getItemId()) || !hasValidPeriod(bookingDto)) continue;
+            if (from == null || bookingDto.getStart().isBefore(from)) from = bookingDto.getStart();
+            if (to == null || bookingDto.getEnd().isAfter(to)) to = bookingDto.getEnd();
+        }
+        Map<Long, BookingTimeline> approved = loadApprovedTimelines(items.keySet(), from, to);
+        /*
+        периоды уже принятых броней пакета: брони пакета не должны пересекаться и между собой
+         */
+        Map<Long, BookingTimeline> accepted = new HashMap<>();
+        BookingBatchResultDto[] results = new BookingBatchResultDto[bookingDtos.size()];
+        List<Booking> bookings = new ArrayList<>();
+        List<Integer> bookingIndexes = new ArrayList<>();
+
+        for (int i = 0; i < bookingDtos.size(); i++) {
+            BookingDtoOnCreate bookingDto = bookingDtos.get(i);
+
+            try {
+                Item item = checkBatchEntry(bookingDto, items, booker, approved, accepted);
+                Booking booking = new Booking();
+
+                booking.setStart(bookingDto.getStart());
+                booking.setEnd(bookingDto.getEnd());
+                booking.setItem(item);
+                booking.setBooker(booker);
+                booking.setStatus(Status.WAITING);
+                accepted.computeIfAbsent(item.getId(), id -> new BookingTimeline())
+                        .add(booking.getStart(), booking.getEnd());
+                bookings.add(booking);
+                bookingIndexes.add(i);
+            } catch (NotFoundException | ItemNotAvailableException | UserTryBookingItsItemException e) {
+                results[i] = BookingBatchResultDto.failed(i, e.getMessage());
+            }
+        }
+        bookingRepository.insertAll(bookings);
+        pointers.refresh(bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet()));
+        for (int k = 0; k < bookings.size(); k++) {
+            int index = bookingIndexes.get(k);
+
+            results[index] = BookingBatchResultDto.created(index, mapper.toDtoAfterCreate(bookings.get(k)));
+        }
+        log.info("Пакет броней пользователя id = {}: сохранено {} из {}", bookerId, bookings.size(), bookingDtos.size());
+        return Arrays.asList(results);
+    }
+
+    @Override
+    @Transactional
     public BookingDtoAfterApproving confirmBooking(Long bookingId, Long shouldBeOwnerId, Boolean isApproved) {
-        Booking booking = bookingRepository.findById(bookingId)
+        /*
+        строка брони блокируется первой, чтобы одну бронь не рассматривали параллельно дважды
+         */
+        Booking booking = bookingRepository.findByIdForUpdate(bookingId)
                 .orElseThrow(() -> new NotFoundException("Не найдена бронь с id = " + bookingId));
         /*
         проверка что пользователь существует
          */
-        User owner = userRepository.findById(shouldBeOwnerId)
+        User owner = userCache.find(shouldBeOwnerId)
                 .orElseThrow(() -> new NotFoundException("Не найден пользователь с id = " + shouldBeOwnerId));
 
         if (!booking.getStatus().equals(Status.WAITING)) {
@@ -74,7 +143,13 @@ public class BookingServiceImpl implements BookingService {
         if (!shouldBeOwnerId.equals(ownerId))
             throw new UserIsNotItemOwnerException(String.format("Пользователь с id = %s не является " +
                     "владельцем вещи %s. Ее владелец пользователь id = %s", shouldBeOwnerId, booking.getItem(), ownerId));
+        /*
+        вещь блокируется и при отклонении: под блокировкой вещи пересчитываются указатели ее броней
+         */
+        Item item = lockItem(booking.getItem().getId());
+
         if (isApproved) {
+            checkItemCanBeBookedForTime(item, booking.getStart(), booking.getEnd());
             booking.setStatus(Status.APPROVED);
         } else {
             booking.setStatus(Status.REJECTED);
@@ -82,14 +157,86 @@ public class BookingServiceImpl implements BookingService {
 
         Booking savedBooking = bookingRepository.save(booking);
 
+        pointers.refresh(List.of(savedBooking.getItem().getId()));
         return mapper.toDtoAfterApproving(savedBooking);
     }
 
+    @Override
+    @Transactional
+    public List<BookingDecisionResultDto> confirmBookings(List<BookingDecisionDto> decisions, Long ownerId) {
+        userCache.find(ownerId)
+                .orElseThrow(() -> new NotFoundException("Не найден пользователь с id = " + ownerId));
+        Set<Long> bookingIds = decisions.stream()
+                .map(BookingDecisionDto::getBookingId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(TreeSet::new));
+        /*
+        порядок блокировок как в confirmBooking: строки броней, затем полосы и строки вещей
+         */
+        Map<Long, Booking> bookings = lockBookings(bookingIds);
+        /*
+        вещи блокируются и при отклонении: под блокировкой вещи пересчитываются указатели ее броней
+         */
+        Set<Long> itemIds = new TreeSet<>();
+        Set<Long> approvedItemIds = new TreeSet<>();
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+
+        for (BookingDecisionDto decision : decisions) {
+            Booking booking = bookings.get(decision.getBookingId());
+
+            if (booking == null || !ownerId.equals(booking.getItem().getOwner().getId())) continue;
+            itemIds.add(booking.getItem().getId());
+            if (!Boolean.TRUE.equals(decision.getApproved())) continue;
+            approvedItemIds.add(booking.getItem().getId());
+            if (from == null || booking.getStart().isBefore(from)) from = booking.getStart();
+            if (to == null || booking.getEnd().isAfter(to)) to = booking.getEnd();
+        }
+        lockItems(itemIds);
+
+        Map<Long, BookingTimeline> approved = loadApprovedTimelines(approvedItemIds, from, to);
+        BookingDecisionResultDto[] results = new BookingDecisionResultDto[decisions.size()];
+        Set<Long> decided = new HashSet<>();
+        List<Booking> changed = new ArrayList<>();
+
+        for (int i = 0; i < decisions.size(); i++) {
+            BookingDecisionDto decision = decisions.get(i);
+
+            try {
+                Booking booking = checkDecision(decision, bookings, ownerId, decided);
+
+                if (decision.getApproved()) {
+                    BookingTimeline timeline = approved.computeIfAbsent(booking.getItem().getId(), id -> new BookingTimeline());
+
+                    if (timeline.overlaps(booking.getStart(), booking.getEnd())) {
+                        throw new ItemNotAvailableException("Вещь забронирована на период: "
+                                + booking.getStart() + "-" + booking.getEnd());
+                    }
+                    timeline.add(booking.getStart(), booking.getEnd());
+                    booking.setStatus(Status.APPROVED);
+                } else {
+                    booking.setStatus(Status.REJECTED);
+                }
+                changed.add(booking);
+                results[i] = BookingDecisionResultDto.applied(booking.getId(), booking.getStatus());
+            } catch (NotFoundException | UserIsNotItemOwnerException | StatusCanNotBeChangedException
+                     | ItemNotAvailableException e) {
+                results[i] = BookingDecisionResultDto.failed(decision.getBookingId(), e.getMessage());
+            }
+        }
+        bookingRepository.updateStatuses(changed);
+        pointers.refresh(changed.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet()));
+        log.info("Пользователь id = {} рассмотрел {} из {} броней", ownerId, changed.size(), decisions.size());
+        return Arrays.asList(results);
+    }
+
     @Override
     public BookingDtoAfterApproving getBookingById(Long bookingId, Long userRequestFrom) {
-        User user = userRepository.findById(userRequestFrom)
+        User user = userCache.find(userRequestFrom)
                 .orElseThrow(() -> new NotFoundException("Не найден пользователь с id = " + userRequestFrom));
-        Booking booking = bookingRepository.findById(bookingId)
+        Booking booking = bookingRepository.findWithItemById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Не найдена бронь с id = " + bookingId));
 
         checkBookingAccessFor(userRequestFrom, booking);
@@ -98,78 +245,67 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingDtoAfterCreate> getUserBookings(Long userId, UserBookingStates state, Integer from, Integer size) {
-        User booker = userRepository.findById(userId)
+        userCache.find(userId)
                 .orElseThrow(() -> new NotFoundException("Не найден пользователь id = " + userId));
-        Page page = new Page(from, size, Sort.unsorted());
-
-        switch (state) {
-            case ALL: {
-                List<Booking> bookingList = bookingRepository
-                        .findAllByBookerOrderByStartDesc(booker, page);
-                return mapper.toDtoAfterCreate(bookingList);
-            }
-            case FUTURE: {
-                List<Booking> bookingList = bookingRepository
-                        .findAllByBookerAndStartAfterOrderByStartDesc(booker, LocalDateTime.now(), page);
-                return mapper.toDtoAfterCreate(bookingList);
-            }
-            case PAST: {
-                List<Booking> bookingList = bookingRepository
-                        .findAllByBookerAndEndBeforeOrderByStartDesc(booker, LocalDateTime.now(), page);
-                return mapper.toDtoAfterCreate(bookingList);
-            }
-            case CURRENT: {
-                List<Booking> bookingList = bookingRepository
-                        .findAllByBookerAndStartBeforeAndEndAfterOrderByStartDesc(booker,
-                                LocalDateTime.now(), LocalDateTime.now(), page);
-                return mapper.toDtoAfterCreate(bookingList);
-            }
-            default: {
-                String status = state.name();
-                List<Booking> bookingList = bookingRepository
-                        .findAllByBookerAndStatus(booker, Status.valueOf(status), page);
+        BookingQuery query = BookingQuery.of(BookingRole.BOOKER, userId, state, LocalDateTime.now());
 
-                return mapper.toDtoAfterCreate(bookingList);
-            }
-        }
+        query.setPage(new Page(from, size, Sort.unsorted()));
+        return bookingRepository.findBookingDtos(query);
     }
 
     @Override
     public List<BookingDtoAfterCreate> getBookingsByOwner(Long ownerId, UserBookingStates state, Integer from, Integer size) {
-        User owner = userRepository.findById(ownerId)
+        userCache.find(ownerId)
                 .orElseThrow(() -> new NotFoundException("Не найден пользователь id = " + ownerId));
-        Page page = new Page(from, size, Sort.unsorted());
+        BookingQuery query = BookingQuery.of(BookingRole.OWNER, ownerId, state, LocalDateTime.now());
 
-        switch (state) {
-            case ALL: {
-                List<Booking> bookingList = bookingRepository
-                        .findAllByItem_OwnerOrderByStartDesc(owner, page);
-                return mapper.toDtoAfterCreate(bookingList);
-            }
-            case FUTURE: {
-                List<Booking> bookingList = bookingRepository
-                        .findAllByItem_OwnerAndStartAfterOrderByStartDesc(owner, LocalDateTime.now(), page);
-                return mapper.toDtoAfterCreate(bookingList);
-            }
-            case PAST: {
-                List<Booking> bookingList = bookingRepository
-                        .findAllByItem_OwnerAndEndBeforeOrderByStartDesc(owner, LocalDateTime.now(), page);
-                return mapper.toDtoAfterCreate(bookingList);
-            }
-            case CURRENT: {
-                List<Booking> bookingList = bookingRepository
-                        .findAllByItem_OwnerAndStartBeforeAndEndAfterOrderByStartDesc(owner,
-                                LocalDateTime.now(), LocalDateTime.now(), page);
-                return mapper.toDtoAfterCreate(bookingList);
-            }
-            default: {
-                String status = state.name();
-                List<Booking> bookingList = bookingRepository
-                        .findAllByItem_OwnerAndStatus(owner, Status.valueOf(status), page);
+        query.setPage(new Page(from, size, Sort.unsorted()));
+        return bookingRepository.findBookingDtos(query);
+    }
 
-                return mapper.toDtoAfterCreate(bookingList);
-            }
+    @Override
+    public CursorPage<BookingDtoAfterCreate> getUserBookingsPage(Long userId, UserBookingStates state, String cursor,
+                                                                 Integer size) {
+        userCache.find(userId)
+                .orElseThrow(() -> new NotFoundException("Не найден пользователь id = " + userId));
+        return findPage(BookingRole.BOOKER, userId, state, cursor, size);
+    }
+
+    @Override
+    public CursorPage<BookingDtoAfterCreate> getBookingsByOwnerPage(Long ownerId, UserBookingStates state, String cursor,
+                                                                    Integer size) {
+        userCache.find(ownerId)
+                .orElseThrow(() -> new NotFoundException("Не найден пользователь id = " + ownerId));
+        return findPage(BookingRole.OWNER, ownerId, state, cursor, size);
+    }
+
+    /**
+     * Страница keyset-выборки. Запрашивается на одну бронь больше, чтобы знать, есть ли следующая страница.
+     *
+     * @param cursor курсор (start, id) последней брони предыдущей страницы, пустой для первой страницы
+     */
+    private CursorPage<BookingDtoAfterCreate> findPage(BookingRole role, Long userId, UserBookingStates state,
+                                                       String cursor, int size) {
+        BookingQuery query = BookingQuery.of(role, userId, state, LocalDateTime.now());
+
+        if (cursor != null && !cursor.isEmpty()) {
+            Cursor decoded = Cursor.decode(cursor, 2);
+
+            query.setAfterStart(decoded.getDateTime(0));
+            query.setAfterId(decoded.getLong(1));
+        }
+        query.setPage(new Page(0, size + 1, Sort.unsorted()));
+
+        List<BookingDtoAfterCreate> bookings = bookingRepository.findBookingDtos(query);
+        String nextCursor = null;
+
+        if (bookings.size() > size) {
+            bookings = bookings.subList(0, size);
+            BookingDtoAfterCreate last = bookings.get(size - 1);
+
+            nextCursor = Cursor.encode(last.getStart(), last.getId());
         }
+        return new CursorPage<>(bookings, nextCursor);
     }
 
     private void checkBookingAccessFor(Long userRequestFromId, Booking booking) {
@@ -184,20 +320,116 @@ public class BookingServiceImpl implements BookingService {
     }
 
     private void checkItemCanBeBookedForTime(Item item, LocalDateTime start, LocalDateTime end) {
-        /*
-        получаем все подтвержденные брони для интересующей вещи
-         */
-        List<Booking> itemBookings = bookingRepository.findAllByItemAndStatus(item, Status.APPROVED, Pageable.unpaged());
+        if (bookingRepository.existsApprovedOverlap(item.getId(), start, end)) {
+            throw new ItemNotAvailableException("Вещь забронирована на период: " + start + "-" + end);
+        }
+    }
 
-        for (Booking booking : itemBookings) {
-            LocalDateTime notAvailableStart = booking.getStart();
-            LocalDateTime notAvailableEnd = booking.getEnd();
+    /**
+     * Блокировка вещи до конца транзакции: сначала полоса внутри узла, затем строка вещи в БД
+     *
+     * @param itemId id вещи
+     * @return заблокированная вещь
+     */
+    private Item lockItem(Long itemId) {
+        locks.lockItem(itemId);
+        return itemRepository.findByIdForUpdate(itemId)
+                .orElseThrow(() -> new NotFoundException("Не найден Item с id = " + itemId));
+    }
 
-            if ((start.isAfter(notAvailableStart)) && (start.isBefore(notAvailableEnd)) ||
-                    (end.isAfter(notAvailableStart)) && (end.isBefore(notAvailableEnd))) {
-                throw new ItemNotAvailableException("Вещь забронирована на период: " + start + "-" + end);
-            }
+    /**
+     * Блокировка нескольких вещей до конца транзакции: полосы в порядке возрастания, затем строки в порядке id
+     *
+     * @param itemIds id вещей
+     * @return найденные вещи по id
+     */
+    private Map<Long, Item> lockItems(Set<Long> itemIds) {
+        if (itemIds.isEmpty()) return new HashMap<>();
+        locks.lockItems(itemIds);
+        return itemRepository.findAllByIdForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+    }
+
+    /**
+     * Подтвержденные брони вещей, пересекающиеся с периодом [from, to), одним запросом, сгруппированные по вещам
+     */
+    private Map<Long, BookingTimeline> loadApprovedTimelines(Set<Long> itemIds, LocalDateTime from, LocalDateTime to) {
+        Map<Long, BookingTimeline> timelines = new HashMap<>();
+
+        if (itemIds.isEmpty() || from == null) return timelines;
+        for (BookingItemPeriod period : bookingRepository.findApprovedPeriods(itemIds, from, to)) {
+            timelines.computeIfAbsent(period.getItemId(), id -> new BookingTimeline())
+                    .add(period.getStart(), period.getEnd());
         }
+        return timelines;
+    }
+
+    /**
+     * Блокировка строк броней в порядке id и загрузка броней с вещами и пользователями
+     *
+     * @param bookingIds id броней
+     * @return найденные брони по id
+     */
+    private Map<Long, Booking> lockBookings(Set<Long> bookingIds) {
+        if (bookingIds.isEmpty()) return new HashMap<>();
+        bookingRepository.lockAllById(bookingIds);
+        return bookingRepository.findAllWithItemById(bookingIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+    }
+
+    private Booking checkDecision(BookingDecisionDto decision, Map<Long, Booking> bookings, Long ownerId,
+                                  Set<Long> decided) {
+        Booking booking = bookings.get(decision.getBookingId());
+
+        if (booking == null) {
+            throw new NotFoundException("Не найдена бронь с id = " + decision.getBookingId());
+        }
+        if (decision.getApproved() == null) {
+            throw new StatusCanNotBeChangedException("Не указано решение по брони id = " + booking.getId());
+        }
+        Long itemOwnerId = booking.getItem().getOwner().getId();
+
+        if (!ownerId.equals(itemOwnerId)) {
+            throw new UserIsNotItemOwnerException(String.format("Пользователь с id = %s не является " +
+                    "владельцем вещи %s. Ее владелец пользователь id = %s", ownerId, booking.getItem().getId(), itemOwnerId));
+        }
+        if (!decided.add(booking.getId())) {
+            throw new StatusCanNotBeChangedException("Бронь id = " + booking.getId() + " повторяется в запросе");
+        }
+        if (!booking.getStatus().equals(Status.WAITING)) {
+            throw new StatusCanNotBeChangedException("Бронь id = " + booking.getId() + " уже была рассмотрена владельцем");
+        }
+        return booking;
+    }
+
+    private Item checkBatchEntry(BookingDtoOnCreate bookingDto, Map<Long, Item> items, User booker,
+                                 Map<Long, BookingTimeline> approved, Map<Long, BookingTimeline> accepted) {
+        if (!hasValidPeriod(bookingDto)) {
+            throw new ItemNotAvailableException("Некорректный период брони: " + bookingDto.getStart() + "-" + bookingDto.getEnd());
+        }
+        Item item = items.get(bookingDto.getItemId());
+
+        if (item == null) {
+            throw new NotFoundException("Не найден Item с id = " + bookingDto.getItemId());
+        }
+        checkItemIsAvailable(item);
+        checkItemCanBeBookedByUser(item, booker);
+
+        LocalDateTime start = bookingDto.getStart();
+        LocalDateTime end = bookingDto.getEnd();
+
+        if (approved.getOrDefault(item.getId(), EMPTY_TIMELINE).overlaps(start, end)) {
+            throw new ItemNotAvailableException("Вещь забронирована на период: " + start + "-" + end);
+        }
+        if (accepted.getOrDefault(item.getId(), EMPTY_TIMELINE).overlaps(start, end)) {
+            throw new ItemNotAvailableException("Период пересекается с другой бронью пакета: " + start + "-" + end);
+        }
+        return item;
+    }
+
+    private static boolean hasValidPeriod(BookingDtoOnCreate bookingDto) {
+        return bookingDto.getItemId() != null && bookingDto.getStart() != null && bookingDto.getEnd() != null
+                && bookingDto.getStart().isBefore(bookingDto.getEnd());
     }
 
     private void checkItemCanBeBookedByUser(Item item, User booker) {
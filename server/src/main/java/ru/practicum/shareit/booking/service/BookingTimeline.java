@@ -0,0 +1,69 @@
+package ru.practicum.shareit.booking.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Занятость одной вещи во времени: отсортированный набор непересекающихся интервалов [start, end).
+ * Пересекающиеся интервалы при добавлении склеиваются, поэтому проверка пересечения - один поиск в дереве, O(log n).
+ */
+public final class BookingTimeline {
+    /**
+     * Начало интервала -> конец интервала
+     */
+    private final NavigableMap<LocalDateTime, LocalDateTime> intervals = new TreeMap<>();
+
+    /**
+     * Добавление занятого интервала
+     *
+     * @param start начало (включительно)
+     * @param end   конец (не включительно)
+     */
+    public synchronized void add(LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) return;
+
+        LocalDateTime mergedStart = start;
+        LocalDateTime mergedEnd = end;
+        Map.Entry<LocalDateTime, LocalDateTime> floor = intervals.floorEntry(start);
+
+        if (floor != null && floor.getValue().isAfter(start)) {
+            mergedStart = floor.getKey();
+            mergedEnd = max(mergedEnd, floor.getValue());
+        }
+        /*
+        все интервалы, начинающиеся внутри нового, поглощаются им
+         */
+        NavigableMap<LocalDateTime, LocalDateTime> covered = intervals.subMap(mergedStart, true, end, false);
+
+        for (LocalDateTime coveredEnd : covered.values()) {
+            mergedEnd = max(mergedEnd, coveredEnd);
+        }
+        covered.clear();
+        intervals.put(mergedStart, mergedEnd);
+    }
+
+    /**
+     * Проверка, пересекается ли интервал [start, end) хотя бы с одним занятым интервалом
+     *
+     * @param start начало (включительно)
+     * @param end   конец (не включительно)
+     * @return true, если есть пересечение
+     */
+    public synchronized boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) return false;
+
+        Map.Entry<LocalDateTime, LocalDateTime> candidate = intervals.lowerEntry(end);
+
+        return candidate != null && candidate.getValue().isAfter(start);
+    }
+
+    public synchronized int size() {
+        return intervals.size();
+    }
+
+    private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+        return first.isAfter(second) ? first : second;
+    }
+}
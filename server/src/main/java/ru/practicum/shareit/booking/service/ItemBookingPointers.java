@@ -0,0 +1,141 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.ItemBookingNeighbour;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingPointerRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Материализованные прошлая и следующая брони вещей.
+ * Указатели записываются при создании вещи (пустые), при создании и рассмотрении броней вещи
+ * (под блокировкой строки вещи), при заполнении после старта для вещей без строки (тоже под блокировкой
+ * строки вещи) и плановой задачей, когда наступает начало следующей брони (под блокировкой строки указателей).
+ * Чтение отсутствующие и устаревшие указатели только вычисляет: запись результата, прочитанного до коммита
+ * новой брони, затерла бы указатели, сохраненные этой бронью.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ItemBookingPointers {
+    private final BookingRepository bookingRepository;
+    private final ItemBookingPointerRepository pointerRepository;
+    private final TransactionTemplate transactionTemplate;
+    /**
+     * Сколько вещей сдвигается плановой задачей или заполняется после старта за одну транзакцию
+     */
+    @Value("${shareit.items.booking-pointers.roll-forward-batch:500}")
+    private int rollForwardBatch;
+
+    /**
+     * Прошлые и следующие брони вещей. Отсутствующие и устаревшие указатели вычисляются по броням, но не сохраняются.
+     *
+     * @param itemIds id вещей
+     * @param now     текущий момент
+     * @return не больше двух броней на вещь: прошлая и следующая
+     */
+    @Transactional(readOnly = true)
+    public List<ItemBookingNeighbour> get(Collection<Long> itemIds, LocalDateTime now) {
+        if (itemIds.isEmpty()) return List.of();
+
+        Map<Long, List<ItemBookingNeighbour>> valid = pointerRepository.findValid(itemIds, now);
+        List<ItemBookingNeighbour> neighbours = new ArrayList<>();
+        Set<Long> stale = new TreeSet<>();
+
+        for (Long itemId : itemIds) {
+            List<ItemBookingNeighbour> itemNeighbours = valid.get(itemId);
+
+            if (itemNeighbours == null) {
+                stale.add(itemId);
+            } else {
+                neighbours.addAll(itemNeighbours);
+            }
+        }
+        if (!stale.isEmpty()) {
+            log.debug("Указатели броней вещей вычисляются при чтении: {}", stale);
+            neighbours.addAll(bookingRepository.findLastAndNextBookings(stale, now));
+        }
+        return neighbours;
+    }
+
+    /**
+     * Пустые указатели новой вещи: броней у нее нет, и чтение ее указателей не обращается к броням.
+     * Вызывается в транзакции, сохранившей вещь.
+     *
+     * @param itemId id вещи
+     */
+    @Transactional
+    public void created(Long itemId) {
+        pointerRepository.saveAll(List.of(itemId), List.of());
+    }
+
+    /**
+     * Пересчет указателей вещей после изменения их броней. Вызывается в транзакции, изменившей брони
+     * и заблокировавшей строки вещей, поэтому пересчеты одной вещи не пересекаются.
+     *
+     * @param itemIds id вещей
+     */
+    @Transactional
+    public void refresh(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) return;
+
+        recompute(new TreeSet<>(itemIds), LocalDateTime.now());
+    }
+
+    /**
+     * Сдвиг указателей вещей, у которых следующая бронь уже началась и стала прошлой.
+     * Задача запускается на каждом узле; строки указателей блокируются перед чтением броней,
+     * поэтому узлы в PostgreSQL разбирают разные вещи, а пересчет не затирает указатели новой брони.
+     */
+    @Scheduled(fixedDelayString = "${shareit.items.booking-pointers.roll-forward-ms:60000}")
+    @Transactional
+    public void rollForward() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> expired = pointerRepository.lockExpired(now, rollForwardBatch);
+
+        if (expired.isEmpty()) return;
+
+        recompute(expired, now);
+        log.info("Сдвинуты указатели броней {} вещей", expired.size());
+    }
+
+    /**
+     * Заполнение указателей вещей, у которых нет строки: вещи, созданные до появления указателей, иначе
+     * получили бы строку только при следующей брони, а до тех пор каждое чтение искало бы их брони.
+     * Вещи обрабатываются пачками, каждая пачка - в своей транзакции; на нескольких узлах в PostgreSQL
+     * пачки не пересекаются.
+     *
+     * @return количество заполненных вещей
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public int backfill() {
+        int total = 0;
+        Integer filled;
+
+        do {
+            filled = transactionTemplate.execute(status -> {
+                List<Long> missing = pointerRepository.lockMissing(rollForwardBatch);
+
+                if (!missing.isEmpty()) recompute(missing, LocalDateTime.now());
+                return missing.size();
+            });
+            total += filled == null ? 0 : filled;
+        } while (filled != null && filled > 0);
+        if (total > 0) log.info("Заполнены указатели броней {} вещей", total);
+        return total;
+    }
+
+    private void recompute(Collection<Long> itemIds, LocalDateTime now) {
+        pointerRepository.saveAll(itemIds, bookingRepository.findLastAndNextBookings(itemIds, now));
+    }
+}
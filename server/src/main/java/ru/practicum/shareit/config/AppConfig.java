@@ -1,10 +1,21 @@
 package ru.practicum.shareit.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilities.EntityCache;
+
+import java.time.Duration;
 
 @Configuration
+@EnableScheduling
 public class AppConfig {
     @Bean
     public ModelMapper modelMapper() {
@@ -14,4 +25,20 @@ public class AppConfig {
                 .setSkipNullEnabled(true);
         return modelMapper;
     }
+
+    @Bean
+    public EntityCache<User> userCache(UserRepository userRepository, MeterRegistry meterRegistry,
+                                       @Value("${shareit.cache.entities.max-size:10000}") long maxSize,
+                                       @Value("${shareit.cache.entities.ttl:60s}") Duration ttl) {
+        return new EntityCache<>("users", userRepository::findById, userRepository::getReferenceById, maxSize, ttl,
+                meterRegistry);
+    }
+
+    @Bean
+    public EntityCache<Item> itemCache(ItemRepository itemRepository, MeterRegistry meterRegistry,
+                                       @Value("${shareit.cache.entities.max-size:10000}") long maxSize,
+                                       @Value("${shareit.cache.entities.ttl:60s}") Duration ttl) {
+        return new EntityCache<>("items", itemRepository::findWithCommentsById, itemRepository::getReferenceById, maxSize, ttl,
+                meterRegistry);
+    }
 }
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.config;
+
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.spi.MetadataBuilderContributor;
+import org.hibernate.dialect.function.SQLFunctionTemplate;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * SQL-функции, которых нет в JPQL и Criteria API.
+ * Подключается свойством spring.jpa.properties.hibernate.metadata_builder_contributor.
+ */
+public class SqlFunctions implements MetadataBuilderContributor {
+    /**
+     * keyset_before(a, b, x, y) - сравнение кортежей (a, b) < (x, y). Одно условие на кортеж, в отличие
+     * от раскрытия a < x OR a = x AND b < y, PostgreSQL превращает в одну границу диапазона по индексу (a, b);
+     * H2 поддерживает то же сравнение. Criteria API дописывает к условию "= true", PostgreSQL убирает
+     * это сравнение с константой при планировании.
+     */
+    public static final String KEYSET_BEFORE = "keyset_before";
+
+    @Override
+    public void contribute(MetadataBuilder metadataBuilder) {
+        metadataBuilder.applySqlFunction(KEYSET_BEFORE,
+                new SQLFunctionTemplate(StandardBasicTypes.BOOLEAN, "((?1, ?2) < (?3, ?4))"));
+    }
+}
@@ -89,6 +89,13 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleBadCursorException(final BadCursorException e) {
+        log.info("Error: " + e.getMessage());
+        return new ErrorResponse(e.getMessage());
+    }
+
 
     /**
      * Обработка прочих непроверямых исключений.
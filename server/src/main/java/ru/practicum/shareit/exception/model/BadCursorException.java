@@ -0,0 +1,13 @@
+package ru.practicum.shareit.exception.model;
+
+/**
+ * Исключение, связанное с поврежденным или чужим курсором постраничной выборки.
+ */
+public class BadCursorException extends RuntimeException {
+    /**
+     * @param message сообщение, содержащие информацию об ошибке.
+     */
+    public BadCursorException(String message) {
+        super(message);
+    }
+}
@@ -3,11 +3,15 @@ package ru.practicum.shareit.item.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.model.CommentDto;
 import ru.practicum.shareit.item.model.ItemDto;
 import ru.practicum.shareit.item.model.ItemInfoDto;
+import ru.practicum.shareit.item.model.ItemSearchPageDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.utilities.models.Cursor;
+import ru.practicum.shareit.utilities.models.CursorPage;
 
 import java.util.List;
 
@@ -92,16 +96,66 @@ public class ItemController {
     /**
      * Получение списка всех вещей, удовлетворяющих поиску
      *
-     * @param text текст, по которому осуществляется поиск
+     * @param text   текст, по которому осуществляется поиск
+     * @param fuzzy  нечеткий поиск: с опечатками и в другой раскладке, результаты упорядочены по сходству
+     * @param cursor курсор из заголовка X-Next-Cursor предыдущего ответа; если передан (пустой - первая страница),
+     *               from не используется, а курсор следующей страницы возвращается в заголовке X-Next-Cursor
      * @return список подходящих вещей
      */
     @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
-    public List<ItemDto> findItemsByText(@RequestParam("text") String text,
-                                         @RequestParam(value = "from", defaultValue = "0") Integer from,
-                                         @RequestParam(value = "size", defaultValue = "20") Integer size) {
-        log.info("GET /items/search получен для text = " + text);
-        return itemService.findItemsBy(text, from, size);
+    public ResponseEntity<List<ItemDto>> findItemsByText(@RequestParam("text") String text,
+                                                         @RequestParam(value = "from", defaultValue = "0") Integer from,
+                                                         @RequestParam(value = "size", defaultValue = "20") Integer size,
+                                                         @RequestParam(value = "fuzzy", defaultValue = "false") boolean fuzzy,
+                                                         @RequestParam(value = "cursor", required = false) String cursor) {
+        log.info("GET /items/search получен для text = {}, fuzzy = {}, cursor = {}", text, fuzzy, cursor);
+        if (cursor == null) {
+            return ResponseEntity.ok(fuzzy ? itemService.findSimilarItems(text, from, size) : itemService.findItemsBy(text, from, size));
+        }
+        CursorPage<ItemDto> page = itemService.findItemsPage(text, fuzzy, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        if (page.getNextCursor() != null) {
+            response.header(Cursor.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
+    }
+
+    /**
+     * Поиск вещей с фильтрами и счетчиками фасетов
+     *
+     * @param text        текст запроса; если не задан - выбираются все вещи
+     * @param ownerId     фильтр по владельцу
+     * @param withRequest фильтр по наличию запроса, в ответ на который создана вещь
+     * @param available   фильтр по доступности
+     * @return страница вещей по возрастанию id, общее количество и счетчики фасетов
+     */
+    @GetMapping("/search/faceted")
+    @ResponseStatus(HttpStatus.OK)
+    public ItemSearchPageDto findItemsFaceted(@RequestParam(value = "text", defaultValue = "") String text,
+                                              @RequestParam(value = "ownerId", required = false) Long ownerId,
+                                              @RequestParam(value = "withRequest", required = false) Boolean withRequest,
+                                              @RequestParam(value = "available", required = false) Boolean available,
+                                              @RequestParam(value = "from", defaultValue = "0") Integer from,
+                                              @RequestParam(value = "size", defaultValue = "20") Integer size) {
+        log.info("GET /items/search/faceted получен для text = {}, ownerId = {}, withRequest = {}, available = {}",
+                text, ownerId, withRequest, available);
+        return itemService.findItemsFaceted(text, ownerId, withRequest, available, from, size);
+    }
+
+    /**
+     * Подсказки названий вещей при наборе поискового запроса
+     *
+     * @param prefix начало названия
+     * @param size   максимальное количество подсказок
+     * @return названия доступных вещей
+     */
+    @GetMapping("/suggest")
+    @ResponseStatus(HttpStatus.OK)
+    public List<String> suggestNames(@RequestParam("prefix") String prefix,
+                                     @RequestParam(value = "size", defaultValue = "10") Integer size) {
+        return itemService.suggestNames(prefix, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -2,6 +2,9 @@ package ru.practicum.shareit.item.model;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
@@ -14,6 +17,8 @@ import java.util.List;
 @Setter
 @Entity
 @Table(name = "items", schema = "public")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NamedEntityGraph(name = "item-comments-graph", attributeNodes = {@NamedAttributeNode("comments")})
 public class Item {
     /**
@@ -29,7 +34,7 @@ public class Item {
     /**
      * Пользователь, которому принадлежит вещь.
      */
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private User owner;
     /**
      * Доступна ли вещь к аренде.
@@ -42,8 +47,14 @@ public class Item {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    @OneToMany(fetch = FetchType.EAGER)
+    /**
+     * Комментарии к вещи. Загружаются только там, где возвращаются клиенту: графом item-comments-graph
+     * для одной вещи и join fetch для списка вещей владельца; в остальных случаях - пачками по @BatchSize.
+     */
+    @OneToMany
     @JoinColumn(name = "item_id")
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     private List<Comment> comments;
     @Column(name = "request_id")
     private Long requestId;
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.model;
+
+/**
+ * Значения фасетов вещи: владелец, запрос, в ответ на который создана вещь, и доступность
+ */
+public interface ItemFacetValues {
+    Long getId();
+
+    Long getOwnerId();
+
+    Long getRequestId();
+
+    Boolean getAvailable();
+}
@@ -0,0 +1,41 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Страница поиска вещей с фильтрами и счетчиками фасетов
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemSearchPageDto {
+    private List<ItemDto> items;
+    /**
+     * Сколько всего вещей подходит под запрос и фильтры
+     */
+    private long total;
+    private Facets facets;
+
+    /**
+     * Счетчики фасетов. Счетчик каждого фасета учитывает остальные фильтры, но не фильтр по самому фасету,
+     * чтобы было видно, сколько вещей даст выбор другого значения.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Facets {
+        /**
+         * id владельца -> количество вещей, самые частые владельцы
+         */
+        private Map<Long, Long> owners;
+        private long withRequest;
+        private long withoutRequest;
+        private long available;
+        private long unavailable;
+    }
+}
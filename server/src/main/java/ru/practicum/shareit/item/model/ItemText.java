@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.model;
+
+/**
+ * Текст вещи для построения поискового индекса (проекция без владельца и комментариев)
+ */
+public interface ItemText {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+}
@@ -1,29 +1,87 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.item.model.ItemFacetValues;
+import ru.practicum.shareit.item.model.ItemText;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Интерфейс, описывающий методы репозитория вещей.
  */
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
     /**
-     * Получение всех вещей пользователя по id пользователя.
+     * Получение вещей, созданных по запросам
      *
-     * @param owner пользователь, вещи которого будут получены.
-     * @return список вещей, добавленных пользователем.
+     * @param requestIds id запросов
+     * @return вещи по возрастанию id
      */
-    List<Item> findByOwnerOrderByIdAsc(User owner);
+    List<Item> findAllByRequestIdInOrderByIdAsc(Collection<Long> requestIds);
 
     /**
-     * Поиск всех вещей, в описании или в названии которых содержится текст.
+     * Получение вещей пользователя вместе с комментариями одним запросом.
      *
-     * @param someText текст, по которому будет поиск.
-     * @return список подходящих вещей.
+     * @param ownerId id владельца
+     * @return вещи владельца по возрастанию id
      */
-    List<Item> findByAvailableTrueAndDescriptionContainingIgnoreCase(String someText, Pageable p);
+    @Query("select distinct i from Item i left join fetch i.comments where i.owner.id = :ownerId order by i.id")
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    List<Item> findAllWithCommentsByOwnerId(@Param("ownerId") Long ownerId);
+
+    /**
+     * Получение вещи вместе с комментариями одним запросом.
+     *
+     * @param itemId id вещи
+     * @return вещь
+     */
+    @EntityGraph("item-comments-graph")
+    Optional<Item> findWithCommentsById(Long itemId);
+
+    /**
+     * Получение вещи с блокировкой ее строки до конца транзакции (SELECT ... FOR UPDATE).
+     * Используется, чтобы проверка пересечения броней и сохранение брони выполнялись атомарно.
+     *
+     * @param itemId id вещи
+     * @return вещь
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = :itemId")
+    Optional<Item> findByIdForUpdate(@Param("itemId") Long itemId);
+
+    /**
+     * Получение нескольких вещей с блокировкой их строк до конца транзакции.
+     * Строки блокируются в порядке id, чтобы параллельные пакеты не блокировали друг друга взаимно.
+     *
+     * @param itemIds id вещей
+     * @return найденные вещи
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i join fetch i.owner where i.id in :itemIds order by i.id")
+    List<Item> findAllByIdForUpdate(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Названия и описания всех доступных вещей, для построения поискового индекса.
+     *
+     * @return тексты доступных вещей
+     */
+    @Query("select i.id as id, i.name as name, i.description as description from Item i where i.available = true")
+    List<ItemText> findAllAvailableTexts();
+
+    /**
+     * Значения фасетов всех вещей, для построения индекса фасетов.
+     *
+     * @return владелец, запрос и доступность каждой вещи
+     */
+    @Query("select i.id as id, i.owner.id as ownerId, i.requestId as requestId, i.available as available from Item i")
+    List<ItemFacetValues> findAllFacetValues();
 }
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.utilities.models.ScoredId;
+
+import java.util.List;
+
+/**
+ * Запросы к вещам, которые не выражаются через методы Spring Data
+ */
+public interface ItemRepositoryCustom {
+    /**
+     * Полнотекстовый поиск доступных вещей по названию и описанию.
+     * Каждое слово запроса должно быть началом слова в названии или описании; в PostgreSQL более релевантные
+     * вещи (совпадение в названии) идут первыми, в H2 вещи идут по возрастанию id.
+     *
+     * @param text текст запроса
+     * @param page страница результата
+     * @return подходящие вещи
+     */
+    List<Item> search(String text, Pageable page);
+
+    /**
+     * Страница полнотекстового поиска по ключу последней вещи предыдущей страницы (search-after), без смещения.
+     * Порядок выдачи - по убыванию релевантности, затем по возрастанию id (в H2 релевантность всегда 0).
+     *
+     * @param text  текст запроса
+     * @param after ключ последней вещи предыдущей страницы или null для первой страницы
+     * @param limit размер страницы
+     * @return id и релевантность вещей страницы
+     */
+    List<ScoredId> searchAfter(String text, ScoredId after, int limit);
+
+    /**
+     * id всех доступных вещей, подходящих под полнотекстовый запрос (см. {@link #search}), без сортировки.
+     * Нужен, чтобы фильтры и счетчики фасетов считались в памяти по одному запросу к БД.
+     *
+     * @param text текст запроса
+     * @return id подходящих вещей
+     */
+    List<Long> searchIds(String text);
+
+    /**
+     * Нечеткий поиск доступных вещей по сходству триграмм с названием и описанием (pg_trgm, только PostgreSQL).
+     * В H2 вместо него используется TrigramIndex с другой оценкой сходства, поэтому тестами этот запрос
+     * не выполняется.
+     *
+     * @param variants  варианты запроса (исходный текст и его транслитерации)
+     * @param threshold минимальное сходство от 0 до 1
+     * @param page      страница результата
+     * @return вещи по убыванию сходства с лучшим из вариантов
+     */
+    List<Item> searchSimilar(List<String> variants, double threshold, Pageable page);
+
+    /**
+     * Страница нечеткого поиска по ключу последней вещи предыдущей страницы (только PostgreSQL).
+     *
+     * @param variants  варианты запроса (исходный текст и его транслитерации)
+     * @param threshold минимальное сходство от 0 до 1
+     * @param after     ключ последней вещи предыдущей страницы или null для первой страницы
+     * @param limit     размер страницы
+     * @return id и сходство вещей страницы
+     */
+    List<ScoredId> searchSimilarAfter(List<String> variants, double threshold, ScoredId after, int limit);
+}
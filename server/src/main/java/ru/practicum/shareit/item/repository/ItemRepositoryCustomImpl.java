@@ -0,0 +1,173 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.utilities.DatabasePlatform;
+import ru.practicum.shareit.utilities.SearchAfterQuery;
+import ru.practicum.shareit.utilities.SearchTerms;
+import ru.practicum.shareit.utilities.models.ScoredId;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ItemRepositoryCustomImpl implements ItemRepositoryCustom {
+    private static final String COLUMNS = "SELECT i.id, i.name, i.description, i.owner_id, i.available, i.request_id " +
+            "FROM items i ";
+    /*
+    в PostgreSQL поиск идет по GIN-индексу items_search_vector_idx над сгенерированной колонкой search_vector;
+    слова запроса ищутся как префиксы (дрел:* найдет "дрель"), совпадения в названии имеют больший вес
+     */
+    private static final String MATCH_POSTGRESQL = "WHERE i.available AND i.search_vector @@ to_tsquery('simple', :query) ";
+    private static final String SEARCH_POSTGRESQL = COLUMNS + MATCH_POSTGRESQL +
+            "ORDER BY ts_rank(i.search_vector, to_tsquery('simple', :query)) DESC, i.id";
+    private static final String IDS = "SELECT i.id FROM items i ";
+    /*
+    порог оператора <% задается на время транзакции; выражение совпадает с выражением индекса items_text_trgm_idx
+     */
+    private static final String SIMILARITY_THRESHOLD = "SELECT set_config('pg_trgm.word_similarity_threshold', :threshold, true)";
+    private static final String ITEM_TEXT = "(i.name || ' ' || i.description)";
+    /*
+    как и в PostgreSQL, слово запроса ищется как начало слова названия или описания:
+    в начале текста (:termN = "слово%") или после пробела (:wordN = "% слово%")
+     */
+    private static final String TERM_PORTABLE = "(LOWER(i.name) LIKE :term%1$d OR LOWER(i.name) LIKE :word%1$d " +
+            "OR LOWER(i.description) LIKE :term%1$d OR LOWER(i.description) LIKE :word%1$d)";
+    private final boolean postgresql;
+    @PersistenceContext
+    private EntityManager em;
+
+    public ItemRepositoryCustomImpl(DataSource dataSource) {
+        this.postgresql = DatabasePlatform.of(dataSource) == DatabasePlatform.POSTGRESQL;
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable page) {
+        List<String> terms = SearchTerms.of(text);
+
+        if (terms.isEmpty()) return List.of();
+
+        Query query = postgresql
+                ? em.createNativeQuery(SEARCH_POSTGRESQL, Item.class)
+                : em.createNativeQuery(COLUMNS + portableMatch(terms) + "ORDER BY i.id", Item.class);
+
+        SearchTerms.bind(query, terms, postgresql);
+        if (page.isPaged()) {
+            query.setFirstResult((int) page.getOffset());
+            query.setMaxResults(page.getPageSize());
+        }
+        @SuppressWarnings("unchecked")
+        List<Item> items = query.getResultList();
+
+        return items;
+    }
+
+    @Override
+    public List<Long> searchIds(String text) {
+        List<String> terms = SearchTerms.of(text);
+
+        if (terms.isEmpty()) return List.of();
+
+        Query query = em.createNativeQuery(IDS + (postgresql ? MATCH_POSTGRESQL : portableMatch(terms)));
+
+        SearchTerms.bind(query, terms, postgresql);
+
+        List<?> rows = query.getResultList();
+        List<Long> ids = new ArrayList<>(rows.size());
+
+        for (Object row : rows) {
+            ids.add(((Number) row).longValue());
+        }
+        return ids;
+    }
+
+    @Override
+    public List<ScoredId> searchAfter(String text, ScoredId after, int limit) {
+        List<String> terms = SearchTerms.of(text);
+
+        if (terms.isEmpty()) return List.of();
+
+        String scored = postgresql
+                ? "SELECT i.id, ts_rank(i.search_vector, to_tsquery('simple', :query)) AS score FROM items i " + MATCH_POSTGRESQL
+                : "SELECT i.id, 0 AS score FROM items i " + portableMatch(terms);
+        Query query = em.createNativeQuery(SearchAfterQuery.sql(scored, after));
+
+        SearchTerms.bind(query, terms, postgresql);
+        return SearchAfterQuery.fetch(query, after, limit);
+    }
+
+    @Override
+    public List<Item> searchSimilar(List<String> variants, double threshold, Pageable page) {
+        setSimilarityThreshold(threshold);
+
+        Query query = em.createNativeQuery(COLUMNS + "WHERE i.available AND (" + trigramMatch(variants) + ") " +
+                "ORDER BY " + trigramScore(variants) + " DESC, i.id", Item.class);
+
+        bindVariants(query, variants);
+        if (page.isPaged()) {
+            query.setFirstResult((int) page.getOffset());
+            query.setMaxResults(page.getPageSize());
+        }
+        @SuppressWarnings("unchecked")
+        List<Item> items = query.getResultList();
+
+        return items;
+    }
+
+    @Override
+    public List<ScoredId> searchSimilarAfter(List<String> variants, double threshold, ScoredId after, int limit) {
+        setSimilarityThreshold(threshold);
+
+        Query query = em.createNativeQuery(SearchAfterQuery.sql("SELECT i.id, " + trigramScore(variants) + " AS score " +
+                "FROM items i WHERE i.available AND (" + trigramMatch(variants) + ")", after));
+
+        bindVariants(query, variants);
+        return SearchAfterQuery.fetch(query, after, limit);
+    }
+
+    private void setSimilarityThreshold(double threshold) {
+        if (!postgresql) {
+            throw new IllegalStateException("Поиск по триграммам в БД доступен только в PostgreSQL");
+        }
+        em.createNativeQuery(SIMILARITY_THRESHOLD)
+                .setParameter("threshold", String.valueOf(threshold))
+                .getSingleResult();
+    }
+
+    private static String trigramMatch(List<String> variants) {
+        StringBuilder matches = new StringBuilder();
+
+        for (int i = 0; i < variants.size(); i++) {
+            matches.append(i == 0 ? "" : " OR ").append(":variant").append(i).append(" <% ").append(ITEM_TEXT);
+        }
+        return matches.toString();
+    }
+
+    private static String trigramScore(List<String> variants) {
+        StringBuilder similarity = new StringBuilder("GREATEST(");
+
+        for (int i = 0; i < variants.size(); i++) {
+            similarity.append(i == 0 ? "" : ", ").append("word_similarity(:variant").append(i).append(", ")
+                    .append(ITEM_TEXT).append(")");
+        }
+        return similarity.append(')').toString();
+    }
+
+    private static void bindVariants(Query query, List<String> variants) {
+        for (int i = 0; i < variants.size(); i++) {
+            query.setParameter("variant" + i, variants.get(i));
+        }
+    }
+
+    private String portableMatch(List<String> terms) {
+        StringBuilder sql = new StringBuilder("WHERE i.available = TRUE");
+
+        for (int i = 0; i < terms.size(); i++) {
+            sql.append(" AND ").append(String.format(TERM_PORTABLE, i));
+        }
+        return sql.append(' ').toString();
+    }
+}
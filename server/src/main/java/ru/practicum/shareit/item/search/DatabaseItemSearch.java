@@ -0,0 +1,38 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.utilities.models.ScoredId;
+
+import java.util.List;
+
+/**
+ * Поиск вещей средствами БД (см. {@link ItemRepository#search})
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = ItemSearch.ENGINE_PROPERTY, havingValue = "database", matchIfMissing = true)
+public class DatabaseItemSearch implements ItemSearch {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable page) {
+        return itemRepository.search(text, page);
+    }
+
+    @Override
+    public List<ScoredId> searchAfter(String text, ScoredId after, int limit) {
+        return itemRepository.searchAfter(text, after, limit);
+    }
+
+    @Override
+    public long[] searchIds(String text) {
+        return itemRepository.searchIds(text).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+}
@@ -0,0 +1,286 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemFacetValues;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.utilities.TransactionHooks;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск вещей с фильтрами по владельцу, по наличию запроса (Item.requestId) и по доступности.
+ * Для каждого значения фасета хранится сжатое множество id вещей (Roaring64Bitmap); фильтры и счетчики
+ * считаются пересечением множеств в памяти, из БД читаются только совпадения текста и страница вещей.
+ * Индекс строится при старте и поддерживается при создании и изменении вещей.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class FacetedItemSearch {
+    /**
+     * Порядок владельцев в счетчиках: по убыванию количества вещей, при равенстве - по возрастанию id
+     */
+    private static final Comparator<Map.Entry<Long, Long>> OWNER_ORDER =
+            Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+    private final ItemRepository itemRepository;
+    private final ItemSearch itemSearch;
+    /**
+     * Сколько самых частых владельцев возвращать в счетчиках
+     */
+    @Value("${shareit.items.search.owner-facet-size:10}")
+    private int ownerFacetSize;
+    private final Roaring64Bitmap all = new Roaring64Bitmap();
+    private final Roaring64Bitmap available = new Roaring64Bitmap();
+    private final Roaring64Bitmap withRequest = new Roaring64Bitmap();
+    private final Map<Long, Roaring64Bitmap> byOwner = new HashMap<>();
+    /**
+     * id вещи -> значения ее фасетов в индексе, чтобы при изменении вещи убрать ее из старых множеств
+     */
+    private final Map<Long, Values> values = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Построение индекса по всем вещам
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ItemFacetValues> items = itemRepository.findAllFacetValues();
+
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            available.clear();
+            withRequest.clear();
+            byOwner.clear();
+            values.clear();
+            for (ItemFacetValues item : items) {
+                putLocked(item.getId(), new Values(item.getOwnerId(), item.getRequestId() != null,
+                        Boolean.TRUE.equals(item.getAvailable())));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Построен индекс фасетов: {} вещей", items.size());
+    }
+
+    /**
+     * Поиск вещей с фильтрами; фильтр со значением null не применяется
+     *
+     * @param text        текст запроса; если пустой - выбираются все вещи, иначе только доступные с этими словами
+     * @param ownerId     id владельца
+     * @param withRequest создана ли вещь в ответ на запрос
+     * @param available   доступна ли вещь
+     * @param page        страница результата
+     * @return страница вещей по возрастанию id и счетчики фасетов
+     */
+    public FacetedItems search(String text, Long ownerId, Boolean withRequest, Boolean available, Pageable page) {
+        Roaring64Bitmap matches = text.isBlank() ? null : Roaring64Bitmap.bitmapOf(itemSearch.searchIds(text));
+        List<Long> pageIds;
+        Map<Long, Long> owners;
+        long total;
+        long[] requestCounts;
+        long[] availableCounts;
+
+        lock.readLock().lock();
+        try {
+            Roaring64Bitmap base = all;
+
+            if (matches != null) {
+                matches.and(all);
+                base = matches;
+            }
+
+            Roaring64Bitmap ownerFilter = ownerId == null ? null : byOwner.getOrDefault(ownerId, new Roaring64Bitmap());
+            Roaring64Bitmap requestFilter = withRequest == null ? null : subset(this.withRequest, withRequest);
+            Roaring64Bitmap availableFilter = available == null ? null : subset(this.available, available);
+            /*
+            счетчик каждого фасета считается без его собственного фильтра
+             */
+            owners = countOwners(intersect(base, requestFilter, availableFilter));
+            requestCounts = split(intersect(base, ownerFilter, availableFilter), this.withRequest);
+            availableCounts = split(intersect(base, ownerFilter, requestFilter), this.available);
+
+            Roaring64Bitmap selected = intersect(base, ownerFilter, requestFilter, availableFilter);
+
+            total = selected.getLongCardinality();
+            pageIds = page(selected, page);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new FacetedItems(load(pageIds), total, owners,
+                requestCounts[0], requestCounts[1], availableCounts[0], availableCounts[1]);
+    }
+
+    /**
+     * Учесть созданную или измененную вещь: битовые карты обновляются после коммита транзакции, сохранившей вещь
+     *
+     * @param item сохраненная вещь
+     */
+    public void indexed(Item item) {
+        long id = item.getId();
+        Values current = new Values(item.getOwner().getId(), item.getRequestId() != null,
+                Boolean.TRUE.equals(item.getAvailable()));
+
+        TransactionHooks.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                putLocked(id, current);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void putLocked(long id, Values current) {
+        removeLocked(id);
+        all.addLong(id);
+        if (current.available) available.addLong(id);
+        if (current.withRequest) withRequest.addLong(id);
+        byOwner.computeIfAbsent(current.ownerId, owner -> new Roaring64Bitmap()).addLong(id);
+        values.put(id, current);
+    }
+
+    private void removeLocked(long id) {
+        Values previous = values.remove(id);
+
+        if (previous == null) return;
+
+        all.removeLong(id);
+        available.removeLong(id);
+        withRequest.removeLong(id);
+
+        Roaring64Bitmap ownerItems = byOwner.get(previous.ownerId);
+
+        ownerItems.removeLong(id);
+        if (ownerItems.isEmpty()) byOwner.remove(previous.ownerId);
+    }
+
+    private Roaring64Bitmap subset(Roaring64Bitmap bitmap, boolean inside) {
+        if (inside) return bitmap;
+
+        Roaring64Bitmap outside = all.clone();
+
+        outside.andNot(bitmap);
+        return outside;
+    }
+
+    /**
+     * Пересечение множества с фильтрами; без фильтров возвращается само base, поэтому результат не изменяется
+     */
+    private static Roaring64Bitmap intersect(Roaring64Bitmap base, Roaring64Bitmap... filters) {
+        Roaring64Bitmap result = null;
+
+        for (Roaring64Bitmap filter : filters) {
+            if (filter == null) continue;
+            if (result == null) {
+                result = filter.clone();
+            } else {
+                result.and(filter);
+            }
+        }
+        if (result == null) return base;
+
+        result.and(base);
+        return result;
+    }
+
+    /**
+     * @return количество id множества, входящих в bitmap, и не входящих в него
+     */
+    private static long[] split(Roaring64Bitmap ids, Roaring64Bitmap bitmap) {
+        long inside = Roaring64Bitmap.andCardinality(ids, bitmap);
+
+        return new long[]{inside, ids.getLongCardinality() - inside};
+    }
+
+    /**
+     * Самые частые владельцы вещей множества: количество по каждому владельцу - мощность пересечения
+     * его множества с ids, без обхода самих id; в очереди хранятся только ownerFacetSize лучших
+     */
+    private Map<Long, Long> countOwners(Roaring64Bitmap ids) {
+        PriorityQueue<Map.Entry<Long, Long>> top = new PriorityQueue<>(OWNER_ORDER.reversed());
+
+        if (!ids.isEmpty()) {
+            for (Map.Entry<Long, Roaring64Bitmap> owner : byOwner.entrySet()) {
+                long count = ids == all
+                        ? owner.getValue().getLongCardinality()
+                        : Roaring64Bitmap.andCardinality(ids, owner.getValue());
+
+                if (count == 0) continue;
+
+                top.add(Map.entry(owner.getKey(), count));
+                if (top.size() > ownerFacetSize) top.poll();
+            }
+        }
+        return top.stream()
+                .sorted(OWNER_ORDER)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private static List<Long> page(Roaring64Bitmap ids, Pageable page) {
+        long total = ids.getLongCardinality();
+        long from = page.isPaged() ? page.getOffset() : 0;
+        long size = page.isPaged() ? page.getPageSize() : total;
+        List<Long> result = new ArrayList<>();
+
+        if (from >= total) return result;
+
+        PeekableLongIterator iterator = ids.getLongIteratorFrom(ids.select(from));
+
+        while (iterator.hasNext() && result.size() < size) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    private List<Item> load(List<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+
+        Map<Long, Item> items = itemRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, item -> item));
+        /*
+        вещь удалена из БД в обход сервиса: она убирается из индекса и в страницу не попадает
+         */
+        for (Long id : ids) {
+            if (items.containsKey(id)) continue;
+
+            lock.writeLock().lock();
+            try {
+                removeLocked(id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Значения фасетов вещи
+     */
+    private static final class Values {
+        private final long ownerId;
+        private final boolean withRequest;
+        private final boolean available;
+
+        private Values(long ownerId, boolean withRequest, boolean available) {
+            this.ownerId = ownerId;
+            this.withRequest = withRequest;
+            this.available = available;
+        }
+    }
+}
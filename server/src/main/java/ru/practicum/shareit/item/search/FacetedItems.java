@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Результат поиска с фасетами: страница вещей, общее количество и счетчики значений фасетов
+ */
+@Getter
+@AllArgsConstructor
+public class FacetedItems {
+    private final List<Item> items;
+    private final long total;
+    /**
+     * id владельца -> количество вещей, по убыванию количества
+     */
+    private final Map<Long, Long> owners;
+    private final long withRequest;
+    private final long withoutRequest;
+    private final long available;
+    private final long unavailable;
+}
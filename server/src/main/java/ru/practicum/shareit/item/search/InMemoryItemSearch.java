@@ -0,0 +1,109 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemText;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.utilities.SearchTerms;
+import ru.practicum.shareit.utilities.TransactionHooks;
+import ru.practicum.shareit.utilities.models.ScoredId;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск вещей по инвертированному индексу в памяти сервера.
+ * Индекс строится из БД при старте и дальше поддерживается при создании и изменении вещей;
+ * из БД читается только страница найденных вещей.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = ItemSearch.ENGINE_PROPERTY, havingValue = "memory")
+public class InMemoryItemSearch implements ItemSearch {
+    private final ItemRepository itemRepository;
+    private final InvertedIndex index = new InvertedIndex();
+
+    /**
+     * Построение индекса по всем доступным вещам
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ItemText> texts = itemRepository.findAllAvailableTexts();
+        Map<Long, List<String>> contents = new HashMap<>();
+
+        for (ItemText text : texts) {
+            contents.put(text.getId(), terms(text.getName(), text.getDescription()));
+        }
+        index.rebuild(contents);
+        log.info("Построен поисковый индекс вещей: {} вещей", index.size());
+    }
+
+    @Override
+    public List<Item> search(String text, Pageable page) {
+        List<String> terms = SearchTerms.of(text);
+
+        return IndexedItemPage.load(itemRepository,
+                () -> Arrays.stream(index.search(terms)).boxed().collect(Collectors.toList()), page, index::remove);
+    }
+
+    /*
+    в индексе нет релевантности: у всех вещей она 0, и выдача идет по возрастанию id
+     */
+    @Override
+    public List<ScoredId> searchAfter(String text, ScoredId after, int limit) {
+        long[] ids = index.search(SearchTerms.of(text));
+        int from;
+
+        /*
+        выдача идет по убыванию релевантности, затем по возрастанию id. Курсор с ненулевой релевантностью
+        выдан другим движком поиска: при релевантности больше 0 он стоит раньше всех вещей индекса
+        (у них 0), и страница начинается с первой вещи; при релевантности меньше 0 - позже всех,
+        и страница пустая. При релевантности 0 страница начинается после id курсора.
+         */
+        if (after == null || after.getScore() > 0) {
+            from = 0;
+        } else if (after.getScore() < 0) {
+            from = ids.length;
+        } else {
+            int position = Arrays.binarySearch(ids, after.getId());
+
+            from = position >= 0 ? position + 1 : -position - 1;
+        }
+        return Arrays.stream(ids, from, Math.min(ids.length, from + limit))
+                .mapToObj(id -> new ScoredId(id, 0))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long[] searchIds(String text) {
+        return index.search(SearchTerms.of(text));
+    }
+
+    @Override
+    public void indexed(Item item) {
+        long id = item.getId();
+        List<String> terms = Boolean.TRUE.equals(item.getAvailable()) ? terms(item.getName(), item.getDescription()) : null;
+
+        TransactionHooks.afterCommit(() -> {
+            if (terms == null) {
+                index.remove(id);
+            } else {
+                index.put(id, terms);
+            }
+        });
+    }
+
+    private static List<String> terms(String name, String description) {
+        Set<String> terms = new LinkedHashSet<>(SearchTerms.of(name));
+
+        terms.addAll(SearchTerms.of(description));
+        return new ArrayList<>(terms);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Загрузка страницы вещей, найденных индексом в памяти: из БД читаются только id страницы.
+ */
+final class IndexedItemPage {
+    /**
+     * Сколько раз страница собирается заново после удаления пропавших id из индекса
+     */
+    private static final int MAX_RETRIES = 3;
+
+    private IndexedItemPage() {
+    }
+
+    /**
+     * @param itemRepository репозиторий вещей
+     * @param search         поиск по индексу: id вещей в порядке результата
+     * @param page           страница результата
+     * @param evict          удаление id из индекса
+     * @return вещи страницы в порядке индекса; если пропавшие id не ушли из индекса за {@link #MAX_RETRIES}
+     * попыток, страница возвращается без них, то есть короче запрошенной
+     */
+    static List<Item> load(ItemRepository itemRepository, Supplier<List<Long>> search, Pageable page, LongConsumer evict) {
+        for (int attempt = 0; ; attempt++) {
+            List<Long> ids = search.get();
+            int from = page.isPaged() ? (int) Math.min(page.getOffset(), ids.size()) : 0;
+            int to = page.isPaged() ? Math.min(from + page.getPageSize(), ids.size()) : ids.size();
+            List<Long> pageIds = ids.subList(from, to);
+
+            if (pageIds.isEmpty()) return List.of();
+
+            Map<Long, Item> items = itemRepository.findAllById(pageIds).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+            if (items.size() == pageIds.size() || attempt == MAX_RETRIES) {
+                return pageIds.stream()
+                        .map(items::get)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList());
+            }
+            /*
+            вещь удалена из БД в обход сервиса: id убирается из индекса, и страница собирается заново
+             */
+            pageIds.stream()
+                    .filter(id -> !items.containsKey(id))
+                    .forEach(evict::accept);
+        }
+    }
+}
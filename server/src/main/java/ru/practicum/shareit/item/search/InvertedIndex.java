@@ -0,0 +1,201 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.utilities.SearchTerms;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс: слово -> отсортированный список id документов (в массиве long[]).
+ * Запрос находит документы, содержащие каждое слово запроса как начало одного из своих слов.
+ * Чтения выполняются параллельно, изменения - под блокировкой записи.
+ */
+public class InvertedIndex {
+    private static final long[] EMPTY = new long[0];
+    /**
+     * слово -> id документов; TreeMap нужна для поиска по префиксу
+     */
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    /**
+     * id документа -> его слова, чтобы при изменении документа убрать его из старых списков
+     */
+    private final Map<Long, List<String>> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Добавить или заменить документ
+     *
+     * @param id    id документа
+     * @param terms слова документа (см. {@link SearchTerms})
+     * @return прежние слова документа или null, если документа в индексе не было
+     */
+    public List<String> put(long id, List<String> terms) {
+        lock.writeLock().lock();
+        try {
+            List<String> previous = removeLocked(id);
+
+            for (String term : terms) {
+                postings.computeIfAbsent(term, t -> new PostingList()).add(id);
+            }
+            documents.put(id, List.copyOf(terms));
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Убрать документ из индекса
+     *
+     * @param id id документа
+     * @return прежние слова документа или null, если документа в индексе не было
+     */
+    public List<String> remove(long id) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Заменить содержимое индекса
+     *
+     * @param contents id документа -> слова документа
+     */
+    public void rebuild(Map<Long, List<String>> contents) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            /*
+            документы добавляются по возрастанию id: списки растут дописыванием в конец, без сдвигов
+             */
+            new TreeMap<>(contents).forEach((id, terms) -> {
+                for (String term : terms) {
+                    postings.computeIfAbsent(term, t -> new PostingList()).add(id);
+                }
+                documents.put(id, List.copyOf(terms));
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Поиск документов, в которых каждое слово запроса является началом одного из слов документа
+     *
+     * @param terms слова запроса
+     * @return id найденных документов по возрастанию
+     */
+    public long[] search(List<String> terms) {
+        if (terms.isEmpty()) return EMPTY;
+
+        lock.readLock().lock();
+        try {
+            long[][] matches = new long[terms.size()][];
+
+            for (int i = 0; i < terms.size(); i++) {
+                matches[i] = prefixMatches(terms.get(i));
+                if (matches[i].length == 0) return EMPTY;
+            }
+            /*
+            пересечение начинается с самого короткого списка
+             */
+            Arrays.sort(matches, Comparator.comparingInt(ids -> ids.length));
+
+            long[] result = matches[0];
+
+            for (int i = 1; i < matches.length && result.length > 0; i++) {
+                result = intersect(result, matches[i]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return количество документов в индексе
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<String> removeLocked(long id) {
+        List<String> previous = documents.remove(id);
+
+        if (previous == null) return null;
+
+        for (String term : previous) {
+            PostingList list = postings.get(term);
+
+            list.remove(id);
+            if (list.size == 0) postings.remove(term);
+        }
+        return previous;
+    }
+
+    /**
+     * Объединение списков всех слов с префиксом. Короткий префикс покрывает тысячи слов, поэтому списки
+     * не сливаются попарно (каждое слияние копировало бы весь накопленный результат), а собираются в один
+     * массив, который сортируется один раз; повторы удаляются на месте.
+     */
+    private long[] prefixMatches(String prefix) {
+        Collection<PostingList> lists = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+
+        if (lists.isEmpty()) return EMPTY;
+        if (lists.size() == 1) {
+            PostingList list = lists.iterator().next();
+
+            return Arrays.copyOf(list.ids, list.size);
+        }
+
+        int total = 0;
+
+        for (PostingList list : lists) {
+            total += list.size;
+        }
+
+        long[] result = new long[total];
+        int k = 0;
+
+        for (PostingList list : lists) {
+            System.arraycopy(list.ids, 0, result, k, list.size);
+            k += list.size;
+        }
+        Arrays.sort(result);
+        k = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (k == 0 || result[i] != result[k - 1]) result[k++] = result[i];
+        }
+        return Arrays.copyOf(result, k);
+    }
+
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[k++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, k);
+    }
+}
@@ -0,0 +1,51 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.utilities.models.ScoredId;
+
+import java.util.List;
+
+/**
+ * Поиск доступных вещей по названию и описанию. Реализация выбирается свойством shareit.items.search.engine:
+ * database (по умолчанию) - полнотекстовый поиск в БД, memory - инвертированный индекс в памяти сервера.
+ */
+public interface ItemSearch {
+    String ENGINE_PROPERTY = "shareit.items.search.engine";
+
+    /**
+     * Поиск вещей, в названии или описании которых есть каждое слово запроса
+     *
+     * @param text текст запроса
+     * @param page страница результата
+     * @return найденные вещи
+     */
+    List<Item> search(String text, Pageable page);
+
+    /**
+     * Страница поиска по ключу последней вещи предыдущей страницы (search-after), без смещения
+     *
+     * @param text  текст запроса
+     * @param after ключ последней вещи предыдущей страницы или null для первой страницы
+     * @param limit размер страницы
+     * @return id и релевантность вещей страницы в порядке выдачи
+     */
+    List<ScoredId> searchAfter(String text, ScoredId after, int limit);
+
+    /**
+     * id всех вещей, в названии или описании которых есть каждое слово запроса
+     *
+     * @param text текст запроса
+     * @return id найденных вещей в произвольном порядке
+     */
+    long[] searchIds(String text);
+
+    /**
+     * Учесть созданную или измененную вещь. Вызывается в транзакции, сохранившей вещь;
+     * индекс меняется только после ее коммита.
+     *
+     * @param item сохраненная вещь
+     */
+    default void indexed(Item item) {
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.shareit.item.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.ItemDto;
+import ru.practicum.shareit.utilities.TransactionHooks;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш результатов поиска вещей (Caffeine, вытеснение W-TinyLFU). Вес записи - количество вещей в ней.
+ * <p>
+ * Ключ включает номер поколения: любое изменение названия, описания или доступности вещи увеличивает его,
+ * и все ранее закэшированные страницы перестают находиться, а затем вытесняются как неиспользуемые.
+ * Метрики попаданий, промахов и вытеснений публикуются в actuator как cache.* с тегом cache=items.search.
+ */
+@Component
+public class ItemSearchCache {
+    public static final String NAME = "items.search";
+    private final Cache<Key, List<ItemDto>> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ItemSearchCache(@Value("${shareit.items.search.cache.max-weight:100000}") long maxWeight,
+                           MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Key key, List<ItemDto> items) -> items.size() + 1)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    /**
+     * Страница поиска из кэша; при промахе выполняется поиск, одновременные одинаковые запросы ждут один поиск
+     *
+     * @param text   текст запроса
+     * @param fuzzy  нечеткий поиск
+     * @param from   смещение
+     * @param size   размер страницы
+     * @param search поиск в БД или индексе
+     * @return неизменяемый список вещей
+     */
+    public List<ItemDto> get(String text, boolean fuzzy, int from, int size, Supplier<List<ItemDto>> search) {
+        Key key = new Key(generation.get(), normalize(text), fuzzy, from, size);
+
+        return cache.get(key, k -> List.copyOf(search.get()));
+    }
+
+    /**
+     * Сбросить кэш после изменения вещи, влияющего на поиск. Поколение увеличивается сразу, чтобы транзакция
+     * видела свое изменение, и еще раз после ее завершения: страницы, закэшированные другими запросами
+     * до коммита, и страницы с данными откаченной транзакции тоже становятся недоступны.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        TransactionHooks.afterCompletion(generation::incrementAndGet);
+    }
+
+    private static String normalize(String text) {
+        return text.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Key {
+        private final long generation;
+        private final String text;
+        private final boolean fuzzy;
+        private final int from;
+        private final int size;
+    }
+}
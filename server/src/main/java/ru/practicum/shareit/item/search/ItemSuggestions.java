@@ -0,0 +1,81 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemText;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.utilities.TransactionHooks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Подсказки названий доступных вещей при наборе запроса. Работают по {@link PrefixTrie} в памяти сервера,
+ * без обращения к БД; дерево строится при старте и поддерживается при создании и изменении вещей.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ItemSuggestions {
+    /**
+     * Наибольшее количество подсказок в ответе, как в ограничении размера на шлюзе
+     */
+    static final int MAX_LIMIT = 50;
+    private final ItemRepository itemRepository;
+    private final PrefixTrie trie = new PrefixTrie();
+    /**
+     * id доступной вещи -> ее название в дереве, чтобы при изменении вещи убрать старое название
+     */
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+
+    /**
+     * Построение дерева по названиям всех доступных вещей
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        trie.clear();
+        names.clear();
+        for (ItemText text : itemRepository.findAllAvailableTexts()) {
+            trie.add(text.getName());
+            names.put(text.getId(), text.getName());
+        }
+        log.info("Построено дерево подсказок: {} вещей", names.size());
+    }
+
+    /**
+     * Самые частые названия доступных вещей, начинающиеся с префикса
+     *
+     * @param prefix префикс
+     * @param limit  максимальное количество подсказок; приводится к диапазону от 0 до {@link #MAX_LIMIT}
+     * @return названия по убыванию количества вещей, при равенстве - по алфавиту
+     */
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix.isBlank() || limit <= 0) return List.of();
+        return trie.suggest(prefix, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Учесть созданную или измененную вещь. Название в подсказках меняется после коммита транзакции,
+     * сохранившей вещь; недоступная вещь из подсказок убирается.
+     *
+     * @param item сохраненная вещь
+     */
+    public void indexed(Item item) {
+        long id = item.getId();
+        String name = Boolean.TRUE.equals(item.getAvailable()) ? item.getName() : null;
+
+        TransactionHooks.afterCommit(() -> replace(id, name));
+    }
+
+    private synchronized void replace(long id, String name) {
+        String previous = name == null ? names.remove(id) : names.put(id, name);
+
+        if (previous != null) trie.remove(previous);
+        if (name != null) trie.add(name);
+    }
+}
@@ -0,0 +1,243 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Префиксное дерево названий с количеством вхождений каждого названия.
+ * В каждом узле хранится наибольшее количество в его поддереве, поэтому k самых частых продолжений
+ * префикса находятся обходом "лучший-первый" без просмотра всего поддерева.
+ * Названия сравниваются без учета регистра и лишних пробелов; возвращается первое добавленное написание.
+ */
+public class PrefixTrie {
+    private final Node root = new Node();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Учесть еще одно вхождение названия
+     *
+     * @param name название
+     */
+    public void add(String name) {
+        String key = normalize(name);
+
+        if (key.isEmpty()) return;
+
+        lock.writeLock().lock();
+        try {
+            Deque<Node> path = new ArrayDeque<>(key.length() + 1);
+            Node node = root;
+
+            path.push(node);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.childOrCreate(key.charAt(i));
+                path.push(node);
+            }
+            if (node.count++ == 0) node.name = name.trim();
+            updateBest(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Убрать одно вхождение названия
+     *
+     * @param name название
+     */
+    public void remove(String name) {
+        String key = normalize(name);
+
+        if (key.isEmpty()) return;
+
+        lock.writeLock().lock();
+        try {
+            Deque<Node> path = new ArrayDeque<>(key.length() + 1);
+            Node node = root;
+
+            path.push(node);
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+                if (node != null) path.push(node);
+            }
+            if (node == null || node.count == 0) return;
+            if (--node.count == 0) node.name = null;
+            updateBest(path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Очистить дерево
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root.keys = new char[0];
+            root.children = new Node[0];
+            root.count = 0;
+            root.best = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Самые частые названия, начинающиеся с префикса
+     *
+     * @param prefix префикс
+     * @param limit  максимальное количество названий
+     * @return названия по убыванию количества, при равенстве - по алфавиту
+     */
+    public List<String> suggest(String prefix, int limit) {
+        if (limit <= 0) return List.of();
+
+        String key = normalize(prefix);
+        List<String> result = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null || node.best == 0) return result;
+            /*
+            в очереди узлы (по наибольшему количеству в поддереве) и готовые названия (по своему количеству);
+            ключ узла - префикс всех ключей поддерева, поэтому при равных количествах порядок алфавитный
+             */
+            PriorityQueue<Candidate> queue = new PriorityQueue<>();
+
+            queue.add(new Candidate(node, key, false));
+            while (!queue.isEmpty() && result.size() < limit) {
+                Candidate candidate = queue.poll();
+
+                if (candidate.terminal) {
+                    result.add(candidate.node.name);
+                    continue;
+                }
+                if (candidate.node.count > 0) queue.add(new Candidate(candidate.node, candidate.key, true));
+                for (int i = 0; i < candidate.node.keys.length; i++) {
+                    Node child = candidate.node.children[i];
+
+                    if (child.best > 0) queue.add(new Candidate(child, candidate.key + candidate.node.keys[i], false));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Пересчет наибольших количеств от узла названия к корню; пустые ветви удаляются
+     */
+    private static void updateBest(Deque<Node> path) {
+        Node child = null;
+
+        for (Node node : path) {
+            if (child != null && child.best == 0 && child.keys.length == 0) node.removeChild(child);
+
+            int best = node.count;
+
+            for (Node grandChild : node.children) {
+                best = Math.max(best, grandChild.best);
+            }
+            node.best = best;
+            child = node;
+        }
+    }
+
+    /**
+     * Узел дерева: дети хранятся в отсортированном массиве символов и параллельном массиве узлов
+     */
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private String name;
+        private int count;
+        private int best;
+
+        private Node child(char c) {
+            int position = Arrays.binarySearch(keys, c);
+
+            return position >= 0 ? children[position] : null;
+        }
+
+        private Node childOrCreate(char c) {
+            int position = Arrays.binarySearch(keys, c);
+
+            if (position >= 0) return children[position];
+            position = -position - 1;
+
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            Node child = new Node();
+
+            System.arraycopy(keys, 0, newKeys, 0, position);
+            System.arraycopy(children, 0, newChildren, 0, position);
+            newKeys[position] = c;
+            newChildren[position] = child;
+            System.arraycopy(keys, position, newKeys, position + 1, keys.length - position);
+            System.arraycopy(children, position, newChildren, position + 1, children.length - position);
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        private void removeChild(Node child) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == child) {
+                    char[] newKeys = new char[keys.length - 1];
+                    Node[] newChildren = new Node[children.length - 1];
+
+                    System.arraycopy(keys, 0, newKeys, 0, i);
+                    System.arraycopy(children, 0, newChildren, 0, i);
+                    System.arraycopy(keys, i + 1, newKeys, i, keys.length - i - 1);
+                    System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+                    keys = newKeys;
+                    children = newChildren;
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+        private final Node node;
+        private final String key;
+        private final boolean terminal;
+
+        private Candidate(Node node, String key, boolean terminal) {
+            this.node = node;
+            this.key = key;
+            this.terminal = terminal;
+        }
+
+        private int weight() {
+            return terminal ? node.count : node.best;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int byWeight = Integer.compare(other.weight(), weight());
+
+            if (byWeight != 0) return byWeight;
+
+            int byKey = key.compareTo(other.key);
+
+            if (byKey != 0) return byKey;
+            /*
+            название узла идет раньше его продолжений
+             */
+            return Boolean.compare(other.terminal, terminal);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemText;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.utilities.DatabasePlatform;
+import ru.practicum.shareit.utilities.TransactionHooks;
+import ru.practicum.shareit.utilities.models.ScoredId;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Нечеткий поиск вещей по сходству триграмм, устойчивый к опечаткам и набору в другой раскладке.
+ * В PostgreSQL используется GIN-индекс pg_trgm, для H2 - {@link TrigramIndex} в памяти сервера,
+ * который строится при старте и поддерживается при создании и изменении вещей.
+ * <p>
+ * Движки ранжируют по-разному: word_similarity в pg_trgm ищет лучший непрерывный фрагмент текста вещи,
+ * а {@link TrigramIndex} считает долю триграмм запроса во всем тексте. Поэтому при одном пороге набор
+ * найденных вещей, их порядок и границы страниц в PostgreSQL и H2 могут отличаться. Тесты работают на H2
+ * и проверяют только {@link TrigramIndex}; SQL с операторами pg_trgm тестами не выполняется.
+ */
+@Component
+@Slf4j
+public class SimilarItemSearch {
+    private final ItemRepository itemRepository;
+    private final boolean postgresql;
+    /**
+     * Минимальное сходство запроса с названием и описанием вещи, от 0 до 1
+     */
+    private final double threshold;
+    private final TrigramIndex index = new TrigramIndex();
+
+    public SimilarItemSearch(ItemRepository itemRepository, DataSource dataSource,
+                             @Value("${shareit.items.search.similarity-threshold:0.5}") double threshold) {
+        this.itemRepository = itemRepository;
+        this.postgresql = DatabasePlatform.of(dataSource) == DatabasePlatform.POSTGRESQL;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Построение индекса триграмм по всем доступным вещам (не нужно для PostgreSQL)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (postgresql) return;
+
+        Map<Long, String> contents = new HashMap<>();
+
+        for (ItemText text : itemRepository.findAllAvailableTexts()) {
+            contents.put(text.getId(), text.getName() + " " + text.getDescription());
+        }
+        index.rebuild(contents);
+        log.info("Построен индекс триграмм вещей: {} вещей", contents.size());
+    }
+
+    /**
+     * Поиск доступных вещей, похожих на запрос или на его транслитерацию
+     *
+     * @param text текст запроса
+     * @param page страница результата
+     * @return вещи по убыванию сходства
+     */
+    @Transactional(readOnly = true)
+    public List<Item> search(String text, Pageable page) {
+        List<String> variants = Transliteration.variants(text);
+
+        if (postgresql) return itemRepository.searchSimilar(variants, threshold, page);
+
+        return IndexedItemPage.load(itemRepository, () -> index.search(variants, threshold).stream()
+                .map(ScoredId::getId)
+                .collect(Collectors.toList()), page, index::remove);
+    }
+
+    /**
+     * Страница нечеткого поиска по ключу последней вещи предыдущей страницы
+     *
+     * @param text  текст запроса
+     * @param after ключ последней вещи предыдущей страницы или null для первой страницы
+     * @param limit размер страницы
+     * @return id и сходство вещей страницы в порядке выдачи
+     */
+    @Transactional(readOnly = true)
+    public List<ScoredId> searchAfter(String text, ScoredId after, int limit) {
+        List<String> variants = Transliteration.variants(text);
+
+        if (postgresql) return itemRepository.searchSimilarAfter(variants, threshold, after, limit);
+
+        List<ScoredId> hits = index.search(variants, threshold);
+        int position = after == null ? -1 : Collections.binarySearch(hits, after);
+        int from = position >= 0 ? position + 1 : -position - 1;
+
+        return hits.subList(Math.min(from, hits.size()), Math.min(hits.size(), from + limit));
+    }
+
+    /**
+     * Учесть созданную или измененную вещь: триграммы вещи заменяются после коммита сохранившей ее транзакции
+     *
+     * @param item сохраненная вещь
+     */
+    public void indexed(Item item) {
+        if (postgresql) return;
+
+        long id = item.getId();
+        String text = Boolean.TRUE.equals(item.getAvailable()) ? item.getName() + " " + item.getDescription() : null;
+
+        TransactionHooks.afterCommit(() -> {
+            if (text == null) {
+                index.remove(id);
+            } else {
+                index.put(id, text);
+            }
+        });
+    }
+}
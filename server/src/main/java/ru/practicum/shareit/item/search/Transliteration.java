@@ -0,0 +1,90 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Транслитерация запроса между латиницей и кириллицей: пользователи набирают "drel" вместо "дрель"
+ * и наоборот. Нужна только для нечеткого поиска, где вариант запроса сравнивается по триграммам.
+ */
+public final class Transliteration {
+    /**
+     * Сочетания латинских букв проверяются раньше одиночных: сначала самые длинные
+     */
+    private static final List<Map.Entry<String, String>> LATIN_TO_CYRILLIC = List.of(
+            Map.entry("shch", "щ"), Map.entry("sch", "щ"), Map.entry("sh", "ш"), Map.entry("ch", "ч"),
+            Map.entry("zh", "ж"), Map.entry("kh", "х"), Map.entry("ts", "ц"), Map.entry("yu", "ю"),
+            Map.entry("ya", "я"), Map.entry("yo", "ё"), Map.entry("a", "а"), Map.entry("b", "б"),
+            Map.entry("c", "к"), Map.entry("d", "д"), Map.entry("e", "е"), Map.entry("f", "ф"),
+            Map.entry("g", "г"), Map.entry("h", "х"), Map.entry("i", "и"), Map.entry("j", "й"),
+            Map.entry("k", "к"), Map.entry("l", "л"), Map.entry("m", "м"), Map.entry("n", "н"),
+            Map.entry("o", "о"), Map.entry("p", "п"), Map.entry("q", "к"), Map.entry("r", "р"),
+            Map.entry("s", "с"), Map.entry("t", "т"), Map.entry("u", "у"), Map.entry("v", "в"),
+            Map.entry("w", "в"), Map.entry("x", "кс"), Map.entry("y", "ы"), Map.entry("z", "з"));
+    private static final Map<Character, String> CYRILLIC_TO_LATIN = Map.ofEntries(
+            Map.entry('а', "a"), Map.entry('б', "b"), Map.entry('в', "v"), Map.entry('г', "g"),
+            Map.entry('д', "d"), Map.entry('е', "e"), Map.entry('ё', "yo"), Map.entry('ж', "zh"),
+            Map.entry('з', "z"), Map.entry('и', "i"), Map.entry('й', "y"), Map.entry('к', "k"),
+            Map.entry('л', "l"), Map.entry('м', "m"), Map.entry('н', "n"), Map.entry('о', "o"),
+            Map.entry('п', "p"), Map.entry('р', "r"), Map.entry('с', "s"), Map.entry('т', "t"),
+            Map.entry('у', "u"), Map.entry('ф', "f"), Map.entry('х', "kh"), Map.entry('ц', "ts"),
+            Map.entry('ч', "ch"), Map.entry('ш', "sh"), Map.entry('щ', "shch"), Map.entry('ъ', ""),
+            Map.entry('ы', "y"), Map.entry('ь', ""), Map.entry('э', "e"), Map.entry('ю', "yu"),
+            Map.entry('я', "ya"));
+
+    private Transliteration() {
+    }
+
+    /**
+     * Варианты запроса: исходный текст, текст в кириллице и текст в латинице (без повторов)
+     *
+     * @param text текст запроса
+     * @return варианты запроса в нижнем регистре, исходный - первый
+     */
+    public static List<String> variants(String text) {
+        String lower = text.toLowerCase(Locale.ROOT);
+        Set<String> variants = new LinkedHashSet<>();
+
+        variants.add(lower);
+        variants.add(toCyrillic(lower));
+        variants.add(toLatin(lower));
+        return List.copyOf(variants);
+    }
+
+    static String toCyrillic(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        int i = 0;
+
+        while (i < text.length()) {
+            String replacement = null;
+
+            for (Map.Entry<String, String> pair : LATIN_TO_CYRILLIC) {
+                if (text.startsWith(pair.getKey(), i)) {
+                    replacement = pair.getValue();
+                    i += pair.getKey().length();
+                    break;
+                }
+            }
+            if (replacement == null) {
+                result.append(text.charAt(i++));
+            } else {
+                result.append(replacement);
+            }
+        }
+        return result.toString();
+    }
+
+    static String toLatin(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            result.append(CYRILLIC_TO_LATIN.getOrDefault(c, String.valueOf(c)));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,158 @@
+package ru.practicum.shareit.item.search;
+
+import ru.practicum.shareit.utilities.SearchTerms;
+import ru.practicum.shareit.utilities.models.ScoredId;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс триграмм для нечеткого поиска: триграмма -> отсортированный список id документов.
+ * Триграммы строятся как в pg_trgm: каждое слово дополняется двумя пробелами слева и одним справа.
+ * Сходство запроса с документом - доля триграмм запроса, которые есть в документе; просматриваются только
+ * списки триграмм запроса. Это приближение word_similarity в pg_trgm, а не его копия: pg_trgm считает
+ * сходство по лучшему непрерывному фрагменту документа, поэтому оценки и порядок выдачи могут различаться.
+ */
+public class TrigramIndex {
+    private final Map<String, PostingList> postings = new HashMap<>();
+    /**
+     * id документа -> его текст, чтобы при изменении документа убрать его из старых списков
+     */
+    private final Map<Long, String> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Добавить или заменить документ
+     *
+     * @param id   id документа
+     * @param text текст документа
+     * @return прежний текст документа или null, если документа в индексе не было
+     */
+    public String put(long id, String text) {
+        Set<String> trigrams = trigrams(text);
+
+        lock.writeLock().lock();
+        try {
+            String previous = removeLocked(id);
+
+            for (String trigram : trigrams) {
+                postings.computeIfAbsent(trigram, t -> new PostingList()).add(id);
+            }
+            documents.put(id, text);
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Убрать документ из индекса
+     *
+     * @param id id документа
+     * @return прежний текст документа или null, если документа в индексе не было
+     */
+    public String remove(long id) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Заменить содержимое индекса
+     *
+     * @param contents id документа -> текст документа
+     */
+    public void rebuild(Map<Long, String> contents) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            new TreeMap<>(contents).forEach((id, text) -> {
+                for (String trigram : trigrams(text)) {
+                    postings.computeIfAbsent(trigram, t -> new PostingList()).add(id);
+                }
+                documents.put(id, text);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Документы, похожие хотя бы на один вариант запроса
+     *
+     * @param variants  варианты запроса (см. {@link Transliteration#variants})
+     * @param threshold минимальное сходство от 0 до 1
+     * @return id документов со сходством; по убыванию сходства, при равном сходстве - по возрастанию id
+     */
+    public List<ScoredId> search(List<String> variants, double threshold) {
+        Map<Long, Double> scores = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (String variant : variants) {
+                Set<String> query = trigrams(variant);
+
+                if (query.isEmpty()) continue;
+
+                Map<Long, Integer> shared = new HashMap<>();
+
+                for (String trigram : query) {
+                    PostingList list = postings.get(trigram);
+
+                    if (list == null) continue;
+                    for (int i = 0; i < list.size; i++) {
+                        shared.merge(list.ids[i], 1, Integer::sum);
+                    }
+                }
+                shared.forEach((id, count) -> scores.merge(id, (double) count / query.size(), Math::max));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<ScoredId> hits = new ArrayList<>();
+
+        scores.forEach((id, score) -> {
+            if (score >= threshold) hits.add(new ScoredId(id, score));
+        });
+        Collections.sort(hits);
+        return hits;
+    }
+
+    /**
+     * Триграммы слов текста
+     *
+     * @param text текст
+     * @return множество триграмм
+     */
+    static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+
+        for (String term : SearchTerms.of(text)) {
+            String padded = "  " + term + " ";
+
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    private String removeLocked(long id) {
+        String previous = documents.remove(id);
+
+        if (previous == null) return null;
+
+        for (String trigram : trigrams(previous)) {
+            PostingList list = postings.get(trigram);
+
+            list.remove(id);
+            if (list.size == 0) postings.remove(trigram);
+        }
+        return previous;
+    }
+}
@@ -4,6 +4,8 @@ import ru.practicum.shareit.item.model.CommentDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.model.ItemDto;
 import ru.practicum.shareit.item.model.ItemInfoDto;
+import ru.practicum.shareit.item.model.ItemSearchPageDto;
+import ru.practicum.shareit.utilities.models.CursorPage;
 
 import java.util.List;
 
@@ -62,6 +64,47 @@ public interface ItemService {
      */
     List<ItemDto> findItemsBy(String text, Integer from, Integer size);
 
+    /**
+     * Нечеткий поиск вещей: с опечатками и в другой раскладке (по сходству триграмм)
+     *
+     * @param text текст запроса
+     * @return список подходящих вещей, самые похожие - первые
+     */
+    List<ItemDto> findSimilarItems(String text, Integer from, Integer size);
+
+    /**
+     * Постраничный поиск вещей по курсору (search-after): выдача упорядочена по релевантности, затем по id,
+     * и следующая страница продолжается с ключа последней вещи, а не со смещения
+     *
+     * @param text   текст запроса
+     * @param fuzzy  нечеткий поиск (по сходству триграмм)
+     * @param cursor курсор из заголовка X-Next-Cursor предыдущего ответа; пустая строка - первая страница
+     * @param size   размер страницы
+     * @return страница вещей и курсор следующей страницы
+     */
+    CursorPage<ItemDto> findItemsPage(String text, boolean fuzzy, String cursor, Integer size);
+
+    /**
+     * Подсказки названий доступных вещей при наборе запроса (без обращения к БД)
+     *
+     * @param prefix начало названия
+     * @param size   максимальное количество подсказок
+     * @return названия, самые частые - первые
+     */
+    List<String> suggestNames(String prefix, Integer size);
+
+    /**
+     * Поиск вещей с фильтрами и счетчиками фасетов; фильтр со значением null не применяется
+     *
+     * @param text        текст запроса; если пустой - выбираются все вещи
+     * @param ownerId     id владельца
+     * @param withRequest создана ли вещь в ответ на запрос
+     * @param available   доступна ли вещь
+     * @return страница вещей, общее количество и счетчики фасетов
+     */
+    ItemSearchPageDto findItemsFaceted(String text, Long ownerId, Boolean withRequest, Boolean available,
+                                       Integer from, Integer size);
+
     Item getItemById(long itemId);
 
     void checkIsUserItemOwner(Item item, long userId);
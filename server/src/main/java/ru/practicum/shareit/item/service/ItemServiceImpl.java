@@ -2,23 +2,40 @@ package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.model.ItemBookingNeighbour;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingDtoMapper;
+import ru.practicum.shareit.booking.service.ItemBookingPointers;
 import ru.practicum.shareit.exception.model.NotFoundException;
 import ru.practicum.shareit.exception.model.UserDidNotBookingItemException;
 import ru.practicum.shareit.exception.model.UserIsNotItemOwnerException;
 import ru.practicum.shareit.item.model.*;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.FacetedItemSearch;
+import ru.practicum.shareit.item.search.FacetedItems;
+import ru.practicum.shareit.item.search.ItemSearch;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSuggestions;
+import ru.practicum.shareit.item.search.SimilarItemSearch;
+import ru.practicum.shareit.request.matching.ItemRequestMatcher;
+import ru.practicum.shareit.request.service.ItemRequestSummaryCache;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilities.EntityCache;
+import ru.practicum.shareit.utilities.TransactionHooks;
+import ru.practicum.shareit.utilities.models.Cursor;
+import ru.practicum.shareit.utilities.models.CursorPage;
 import ru.practicum.shareit.utilities.models.Page;
+import ru.practicum.shareit.utilities.models.ScoredId;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -28,13 +45,21 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ItemServiceImpl implements ItemService {
     /**
-     * Сервис пользоввателей
+     * Регион второго уровня кэша с коллекцией комментариев вещи
      */
-    private final UserRepository userRepository;
+    private static final String COMMENTS_REGION = Item.class.getName() + ".comments";
+    /**
+     * Кэш пользователей
+     */
+    private final EntityCache<User> userCache;
     /**
      * Репозиторий вещей
      */
     private final ItemRepository itemRepository;
+    /**
+     * Кэш вещей для чтения
+     */
+    private final EntityCache<Item> itemCache;
     /**
      * Маппер вещей
      */
@@ -44,16 +69,56 @@ public class ItemServiceImpl implements ItemService {
      */
     private final BookingRepository bookingRepository;
     private final BookingDtoMapper bookingDtoMapper;
+    private final ItemBookingPointers itemBookingPointers;
     private final CommentRepository commentRepository;
     private final CommentDtoMapper commentDtoMapper;
+    private final EntityManagerFactory entityManagerFactory;
+    /**
+     * Поиск вещей
+     */
+    private final ItemSearch itemSearch;
+    /**
+     * Нечеткий поиск вещей
+     */
+    private final SimilarItemSearch similarItemSearch;
+    /**
+     * Подсказки названий вещей
+     */
+    private final ItemSuggestions itemSuggestions;
+    /**
+     * Поиск вещей с фасетами
+     */
+    private final FacetedItemSearch facetedItemSearch;
+    /**
+     * Кэш результатов поиска
+     */
+    private final ItemSearchCache itemSearchCache;
+    /**
+     * Кэш сводок по запросам: вещь, созданная по запросу, меняет сводку его автора
+     */
+    private final ItemRequestSummaryCache requestSummaryCache;
+    /**
+     * Сопоставление новых вещей с открытыми запросами
+     */
+    private final ItemRequestMatcher requestMatcher;
 
     @Override
+    @Transactional
     public ItemDto createItem(ItemDto itemDto, long ownerId) {
-        User owner = userRepository.findById(ownerId)
+        User owner = userCache.reference(ownerId)
                 .orElseThrow(() -> new NotFoundException("Не найден пользователь id = " + ownerId));
         Item item = itemMapper.fromDto(itemDto, owner);
 
         itemRepository.save(item);
+        itemBookingPointers.created(item.getId());
+        itemCache.evict(item.getId());
+        if (Boolean.TRUE.equals(item.getAvailable())) itemSearchCache.invalidate();
+        if (item.getRequestId() != null) requestSummaryCache.evictByRequest(item.getRequestId());
+        itemSearch.indexed(item);
+        similarItemSearch.indexed(item);
+        itemSuggestions.indexed(item);
+        facetedItemSearch.indexed(item);
+        requestMatcher.itemCreated(item);
         log.info("Создана вещь: {}", item);
         return itemMapper.toDto(item);
     }
@@ -61,18 +126,12 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     public ItemInfoDto getItemDtoById(long id, Long userIdRequestFrom) {
-        User user = userRepository.findById(userIdRequestFrom)
+        User user = userCache.find(userIdRequestFrom)
                 .orElseThrow(() -> new NotFoundException("Не найден пользователь id = " + userIdRequestFrom));
-        Item item = itemRepository.findById(id)
+        Item item = itemCache.find(id)
                 .orElseThrow(() -> new NotFoundException("Не найден item с id = " + id));
-        ItemInfoDto itemInfoDto = itemMapper.toItemInfoDto(item);
 
-        log.info("Item owner id = {}, userIdRequestFrom = {}", item.getOwner().getId(), userIdRequestFrom);
-        if (item.getOwner().getId().equals(userIdRequestFrom)) {
-            setLastAndNextBookingsTo(List.of(itemInfoDto), LocalDateTime.now());
-        }
-        log.info("Возвращен item: {}", itemInfoDto);
-        return itemInfoDto;
+        return toItemInfoDto(item, userIdRequestFrom);
     }
 
     @Override
@@ -84,25 +143,50 @@ public class ItemServiceImpl implements ItemService {
     }
 
     @Override
+    @Transactional
     public ItemInfoDto updateItem(long itemId, long userIdRequestFrom, ItemDto updatedItem) {
-        Item itemBeforeUpdate = getItemById(itemId);
+        // комментарии нужны для ответа, загружаются вместе с вещью
+        Item itemBeforeUpdate = itemRepository.findWithCommentsById(itemId)
+                .orElseThrow(() -> new NotFoundException("Не найден item с id = " + itemId));
 
         log.info("Найден item для обновления: {}", itemBeforeUpdate);
 
         checkIsUserItemOwner(itemBeforeUpdate, userIdRequestFrom);
+
+        String name = itemBeforeUpdate.getName();
+        String description = itemBeforeUpdate.getDescription();
+        Boolean available = itemBeforeUpdate.getAvailable();
+        Long requestId = itemBeforeUpdate.getRequestId();
+
         itemMapper.fromDto(updatedItem, itemBeforeUpdate);
         itemRepository.save(itemBeforeUpdate);
-        return getItemDtoById(itemId, userIdRequestFrom);
+        itemCache.evict(itemId);
+        if (!Objects.equals(name, itemBeforeUpdate.getName())
+                || !Objects.equals(description, itemBeforeUpdate.getDescription())
+                || !Objects.equals(available, itemBeforeUpdate.getAvailable())) {
+            itemSearchCache.invalidate();
+        }
+        if (!Objects.equals(requestId, itemBeforeUpdate.getRequestId())) {
+            if (requestId != null) requestSummaryCache.evictByRequest(requestId);
+            if (itemBeforeUpdate.getRequestId() != null) {
+                requestSummaryCache.evictByRequest(itemBeforeUpdate.getRequestId());
+            }
+        }
+        itemSearch.indexed(itemBeforeUpdate);
+        similarItemSearch.indexed(itemBeforeUpdate);
+        itemSuggestions.indexed(itemBeforeUpdate);
+        facetedItemSearch.indexed(itemBeforeUpdate);
+        return toItemInfoDto(itemBeforeUpdate, userIdRequestFrom);
     }
 
     @Override
     public List<ItemInfoDto> getItemsByOwnerId(long userId) {
-        User owner = userRepository.findById(userId)
+        userCache.find(userId)
                 .orElseThrow(() -> new NotFoundException("Не найден пользователь id = " + userId));
         /*
-        список Item принадлежащих пользователю
+        список Item принадлежащих пользователю вместе с комментариями
          */
-        List<Item> userItems = itemRepository.findByOwnerOrderByIdAsc(owner);
+        List<Item> userItems = itemRepository.findAllWithCommentsByOwnerId(userId);
         List<ItemInfoDto> userItemsDto = itemMapper.toItemInfoDto(userItems);
 
         setLastAndNextBookingsTo(userItemsDto, LocalDateTime.now());
@@ -114,11 +198,73 @@ public class ItemServiceImpl implements ItemService {
         Page page = new Page(from, size, Sort.unsorted());
         //наверное, по хорошему нужно делать валидацию на someText, но тесты требуют именно пустой лист
         if (text.isBlank()) return Collections.emptyList();
-        return itemRepository.findByAvailableTrueAndDescriptionContainingIgnoreCase(text, page).stream()
+        return itemSearchCache.get(text, false, from, size, () -> itemSearch.search(text, page).stream()
+                .map(itemMapper::toDto)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public ItemSearchPageDto findItemsFaceted(String text, Long ownerId, Boolean withRequest, Boolean available,
+                                              Integer from, Integer size) {
+        Page page = new Page(from, size, Sort.unsorted());
+        FacetedItems found = facetedItemSearch.search(text, ownerId, withRequest, available, page);
+        List<ItemDto> items = found.getItems().stream()
                 .map(itemMapper::toDto)
                 .collect(Collectors.toList());
+
+        return new ItemSearchPageDto(items, found.getTotal(), new ItemSearchPageDto.Facets(found.getOwners(),
+                found.getWithRequest(), found.getWithoutRequest(), found.getAvailable(), found.getUnavailable()));
     }
 
+    @Override
+    public List<String> suggestNames(String prefix, Integer size) {
+        return itemSuggestions.suggest(prefix, size);
+    }
+
+    @Override
+    public List<ItemDto> findSimilarItems(String text, Integer from, Integer size) {
+        Page page = new Page(from, size, Sort.unsorted());
+
+        if (text.isBlank()) return Collections.emptyList();
+        return itemSearchCache.get(text, true, from, size, () -> similarItemSearch.search(text, page).stream()
+                .map(itemMapper::toDto)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public CursorPage<ItemDto> findItemsPage(String text, boolean fuzzy, String cursor, Integer size) {
+        if (text.isBlank()) return new CursorPage<>(Collections.emptyList(), null);
+
+        ScoredId after = null;
+
+        if (!cursor.isEmpty()) {
+            Cursor decoded = Cursor.decode(cursor, 2);
+
+            after = new ScoredId(decoded.getLong(1), decoded.getDouble(0));
+        }
+        List<ScoredId> hits = fuzzy
+                ? similarItemSearch.searchAfter(text, after, size + 1)
+                : itemSearch.searchAfter(text, after, size + 1);
+        String nextCursor = null;
+
+        if (hits.size() > size) {
+            hits = hits.subList(0, size);
+            ScoredId last = hits.get(size - 1);
+
+            nextCursor = Cursor.encode(last.getScore(), last.getId());
+        }
+        Map<Long, Item> items = itemRepository.findAllById(hits.stream()
+                        .map(ScoredId::getId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(Item::getId, item -> item));
+        List<ItemDto> content = hits.stream()
+                .map(hit -> items.get(hit.getId()))
+                .filter(Objects::nonNull)
+                .map(itemMapper::toDto)
+                .collect(Collectors.toList());
+
+        return new CursorPage<>(content, nextCursor);
+    }
 
     @Override
     public Item getItemById(long itemId) {
@@ -145,9 +291,10 @@ public class ItemServiceImpl implements ItemService {
     public CommentDto addComment(long userIdRequestFrom, Long itemId, CommentDto commentDto) {
         LocalDateTime now = LocalDateTime.now();
 
-        User user = userRepository.findById(userIdRequestFrom)
+        User user = userCache.find(userIdRequestFrom)
                 .orElseThrow(() -> new NotFoundException("Не найден пользователь с id = " + userIdRequestFrom));
-        Item item = getItemById(itemId);
+        Item item = itemCache.find(itemId)
+                .orElseThrow(() -> new NotFoundException("Не найден item с id = " + itemId));
         List<Booking> userBookings = bookingRepository
                 .findAllByBookerAndItemAndStartBefore(user, item, now, Pageable.unpaged());
 
@@ -163,7 +310,33 @@ public class ItemServiceImpl implements ItemService {
         comment.setAuthorName(user.getName());
         comment.setItemId(item.getId());
 
-        return commentDtoMapper.toDto(commentRepository.save(comment));
+        Comment savedComment = commentRepository.save(comment);
+
+        itemCache.evict(itemId);
+        evictComments(itemId);
+        return commentDtoMapper.toDto(savedComment);
+    }
+
+    /*
+    комментарий сохраняется по item_id, мимо коллекции Item.comments, поэтому Hibernate не знает, что коллекция
+    изменилась: ее копия убирается из кэша сразу и после завершения транзакции, как в EntityCache
+     */
+    private void evictComments(long itemId) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+
+        cache.evictCollectionData(COMMENTS_REGION, itemId);
+        TransactionHooks.afterCompletion(() -> cache.evictCollectionData(COMMENTS_REGION, itemId));
+    }
+
+    private ItemInfoDto toItemInfoDto(Item item, long userIdRequestFrom) {
+        ItemInfoDto itemInfoDto = itemMapper.toItemInfoDto(item);
+
+        log.info("Item owner id = {}, userIdRequestFrom = {}", item.getOwner().getId(), userIdRequestFrom);
+        if (item.getOwner().getId().equals(userIdRequestFrom)) {
+            setLastAndNextBookingsTo(List.of(itemInfoDto), LocalDateTime.now());
+        }
+        log.info("Возвращен item: {}", itemInfoDto);
+        return itemInfoDto;
     }
 
     private void setLastAndNextBookingsTo(List<ItemInfoDto> items, LocalDateTime moment) {
@@ -174,68 +347,20 @@ public class ItemServiceImpl implements ItemService {
         Map<Long, ItemInfoDto> itemsIdsAndTheirDto = items.stream()
                 .collect(Collectors.toMap((itemDto) -> itemDto.getId(), itemDto -> itemDto));
         /*
-        получаем брони для всех итемов
-         */
-        List<Booking> allBookingsForItems = bookingRepository
-                .findAllByItem_IdIn(new ArrayList<>(itemsIdsAndTheirDto.keySet()), Pageable.unpaged());
-        log.info("Получены брони для списка итемов: {}", allBookingsForItems);
-        /*
-        хеш-мапа вида: итем -> все брони на этот итем
-         */
-        HashMap<Long, List<Booking>> itemsIdsAndTheirBookings = new HashMap<>();
-        /*
-        для каждого итема определяем список броней на него и сохраняем в мапу id итема -> список броней на него
+        не больше двух броней на вещь: прошлая и следующая, по сохраненным указателям без просмотра броней
          */
-        for (Booking booking : allBookingsForItems) {
-            Long currentItemId = booking.getItem().getId();
-
-            itemsIdsAndTheirBookings.computeIfAbsent(currentItemId, v -> new ArrayList<>());
-
-            List<Booking> bookingsForCurrentItem = itemsIdsAndTheirBookings
-                    .get(currentItemId);
-
-            bookingsForCurrentItem.add(booking);
-        }
-
-        for (Long itemId : itemsIdsAndTheirBookings.keySet()) {
-            log.info("Ищем следующую и прошлую брони для Item id = {}", itemId);
-
-            Booking nextBooking = getNextTimeBookingFrom(moment, itemsIdsAndTheirBookings.get(itemId));
-            Booking lastBooking = getLastTimeBookingFrom(moment, itemsIdsAndTheirBookings.get(itemId));
-
-            log.info("Следующая бронь: {}, прошлая бронь: {}", nextBooking, lastBooking);
-
-            ItemInfoDto itemInfoDto = itemsIdsAndTheirDto.get(itemId);
-            ItemInfoDto.BookingDto bookingDtoNext = bookingDtoMapper.toDtoForItemInfo(nextBooking);
-
-            log.info("Next booking: {}", bookingDtoNext);
-
-            ItemInfoDto.BookingDto bookingDtoLast = bookingDtoMapper.toDtoForItemInfo(lastBooking);
-            log.info("Next booking: {}", bookingDtoLast);
-
-            itemInfoDto.setNextBooking(bookingDtoNext);
-            itemInfoDto.setLastBooking(bookingDtoLast);
-
-            log.info("itemInfoDto после установки прошлой и следующей брони: {}", itemInfoDto);
+        List<ItemBookingNeighbour> neighbours = itemBookingPointers.get(itemsIdsAndTheirDto.keySet(), moment);
+
+        log.info("Получены прошлые и следующие брони для списка итемов: {}", neighbours);
+        for (ItemBookingNeighbour neighbour : neighbours) {
+            ItemInfoDto itemInfoDto = itemsIdsAndTheirDto.get(neighbour.getItemId());
+            ItemInfoDto.BookingDto bookingDto = bookingDtoMapper.toDtoForItemInfo(neighbour);
+
+            if (neighbour.isNext()) {
+                itemInfoDto.setNextBooking(bookingDto);
+            } else {
+                itemInfoDto.setLastBooking(bookingDto);
+            }
         }
     }
-
-    private Booking getNextTimeBookingFrom(LocalDateTime moment, List<Booking> bookingList) {
-        return bookingList.stream()
-                .filter(b -> b.getStart().isAfter(moment))
-                .filter(b -> (b.getStatus().equals(Status.APPROVED)) ||
-                        b.getStatus().equals(Status.WAITING))
-                .min(Comparator.comparing(Booking::getStart))
-                .orElse(null);
-    }
-
-    private Booking getLastTimeBookingFrom(LocalDateTime moment, List<Booking> bookingList) {
-        return bookingList.stream()
-                .filter(b -> (b.getStart().isBefore(moment)))
-                .filter(b -> (b.getStatus().equals(Status.APPROVED)) ||
-                        b.getStatus().equals(Status.WAITING))
-                .max(Comparator.comparing(Booking::getStart))
-                .orElse(null);
-    }
-
 }
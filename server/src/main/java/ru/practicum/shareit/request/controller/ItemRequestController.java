@@ -3,11 +3,16 @@ package ru.practicum.shareit.request.controller;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.model.ItemRequestDtoAfterCreate;
 import ru.practicum.shareit.request.model.ItemRequestDtoInfo;
 import ru.practicum.shareit.request.model.ItemRequestDtoOnCreate;
+import ru.practicum.shareit.request.model.ItemRequestSummaryDto;
+import ru.practicum.shareit.request.model.ItemSuggestionDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.utilities.models.Cursor;
+import ru.practicum.shareit.utilities.models.CursorPage;
 
 import java.util.List;
 
@@ -31,11 +36,75 @@ public class ItemRequestController {
         return itemRequestService.createRequest(userId, request);
     }
 
+    /**
+     * Получение запросов пользователя. Без параметра size возвращаются все запросы
+     *
+     * @param from смещение
+     * @param size размер страницы
+     * @return запросы по возрастанию времени создания
+     */
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<ItemRequestDtoInfo> getRequestsByOwner(@RequestHeader(xSharerUserId) Long ownerId) {
-        log.info("GET /requests: получен для ownerId = {}", ownerId);
-        return itemRequestService.getRequestsByOwner(ownerId);
+    public List<ItemRequestDtoInfo> getRequestsByOwner(@RequestHeader(xSharerUserId) Long ownerId,
+                                                       @RequestParam(value = "from", defaultValue = "0") Integer from,
+                                                       @RequestParam(value = "size", required = false) Integer size) {
+        log.info("GET /requests: получен для ownerId = {}, from = {}, size = {}", ownerId, from, size);
+        if (size == null) {
+            return itemRequestService.getRequestsByOwner(ownerId);
+        }
+        return itemRequestService.getRequestsByOwner(ownerId, from, size);
+    }
+
+    /**
+     * Сводка по запросам пользователя: количество запросов, открытых запросов и вещей, созданных по ним
+     */
+    @GetMapping("/summary")
+    @ResponseStatus(HttpStatus.OK)
+    public ItemRequestSummaryDto getSummary(@RequestHeader(xSharerUserId) Long ownerId) {
+        log.info("GET /requests/summary: получен для ownerId = {}", ownerId);
+        return itemRequestService.getSummary(ownerId);
+    }
+
+    /**
+     * Вещи, подходящие под запросы пользователя: предлагаются, когда владелец создает вещь без requestId
+     *
+     * @param from смещение
+     * @param size размер страницы
+     * @return предложения от новых к старым
+     */
+    @GetMapping("/suggestions")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ItemSuggestionDto> getSuggestions(@RequestHeader(xSharerUserId) Long ownerId,
+                                                  @RequestParam(value = "from", defaultValue = "0") Integer from,
+                                                  @RequestParam(value = "size", defaultValue = "20") Integer size) {
+        log.info("GET /requests/suggestions: получен для ownerId = {}, from = {}, size = {}", ownerId, from, size);
+        return itemRequestService.getSuggestions(ownerId, from, size);
+    }
+
+    /**
+     * Полнотекстовый поиск открытых чужих запросов по описанию, от более релевантных к менее релевантным.
+     * Курсор следующей страницы возвращается в заголовке X-Next-Cursor.
+     *
+     * @param text   текст запроса
+     * @param size   размер страницы
+     * @param cursor курсор из заголовка X-Next-Cursor предыдущего ответа, не задан для первой страницы
+     * @return список подходящих запросов
+     */
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<List<ItemRequestDtoInfo>> searchRequests(@RequestHeader(xSharerUserId) Long userId,
+                                                                   @RequestParam("text") String text,
+                                                                   @RequestParam(value = "size", defaultValue = "20") Integer size,
+                                                                   @RequestParam(value = "cursor", required = false) String cursor) {
+        log.info("GET /requests/search: получен для text = {}, size = {}, cursor = {} от пользователя id = {}",
+                text, size, cursor, userId);
+        CursorPage<ItemRequestDtoInfo> page = itemRequestService.searchRequests(userId, text, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        if (page.getNextCursor() != null) {
+            response.header(Cursor.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
     }
 
     @GetMapping("/{requestId}")
@@ -46,13 +115,33 @@ public class ItemRequestController {
         return itemRequestService.getRequestById(requestId, userRequestFromId);
     }
 
+    /**
+     * Получение чужих запросов.
+     * Если передан cursor (пустой для первой страницы), возвращается лента от новых запросов к старым
+     * с выборкой по ключу (created, id) без смещения, а курсор следующей страницы - в заголовке X-Next-Cursor.
+     *
+     * @param cursor курсор из заголовка X-Next-Cursor предыдущего ответа
+     * @return список запросов
+     */
     @GetMapping("/all")
     @ResponseStatus(HttpStatus.OK)
-    public List<ItemRequestDtoInfo> getAllRequests(@RequestParam(value = "from", defaultValue = "0") Integer from,
-                                                   @RequestParam(value = "size", defaultValue = "20") Integer size,
-                                                   @RequestHeader(xSharerUserId) Long userRequestFromId) {
-        log.info("GET /requests/all: получен для from = {}, size ={} от пользователя id =", from, size, userRequestFromId);
-        return itemRequestService.getAllRequests(from, size, userRequestFromId);
+    public ResponseEntity<List<ItemRequestDtoInfo>> getAllRequests(@RequestParam(value = "from", defaultValue = "0") Integer from,
+                                                                   @RequestParam(value = "size", defaultValue = "20") Integer size,
+                                                                   @RequestParam(value = "cursor", required = false) String cursor,
+                                                                   @RequestHeader(xSharerUserId) Long userRequestFromId) {
+        log.info("GET /requests/all: получен для from = {}, size = {}, cursor = {} от пользователя id = {}",
+                from, size, cursor, userRequestFromId);
+        if (cursor == null) {
+            return ResponseEntity.ok(itemRequestService.getAllRequests(from, size, userRequestFromId));
+        }
+
+        CursorPage<ItemRequestDtoInfo> page = itemRequestService.getAllRequestsPage(userRequestFromId, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+
+        if (page.getNextCursor() != null) {
+            response.header(Cursor.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
     }
 }
 
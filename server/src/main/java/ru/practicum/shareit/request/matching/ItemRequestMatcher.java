@@ -0,0 +1,109 @@
+package ru.practicum.shareit.request.matching;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.OpenRequestText;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
+import ru.practicum.shareit.utilities.TransactionHooks;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Сопоставление новых вещей с открытыми запросами. Описания открытых запросов хранятся в {@link OpenRequestIndex}
+ * в памяти сервера: индекс строится при старте, дополняется при создании запроса, а запрос убирается из него,
+ * когда по нему создается вещь. Доступная вещь, созданная без requestId, сопоставляется с индексом
+ * по основам слов названия, и найденные запросы сохраняются как предложения для их авторов.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ItemRequestMatcher {
+    private final ItemRequestRepository itemRequestRepository;
+    private final RequestSuggestionRepository suggestionRepository;
+    private final OpenRequestIndex index = new OpenRequestIndex();
+    /**
+     * Какая доля основ слов названия вещи должна встретиться в описании запроса
+     */
+    @Value("${shareit.requests.matching.min-share:0.6}")
+    private double minShare;
+
+    /**
+     * Построение индекса по всем открытым запросам
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Long, OpenRequestIndex.Entry> contents = new HashMap<>();
+
+        for (OpenRequestText text : itemRequestRepository.findAllOpenTexts()) {
+            contents.put(text.getId(), new OpenRequestIndex.Entry(text.getUserId(), RequestTerms.of(text.getDescription())));
+        }
+        index.rebuild(contents);
+        log.info("Построен индекс открытых запросов: {} запросов", index.size());
+    }
+
+    /**
+     * Учесть созданный запрос: он попадает в индекс после коммита сохранившей его транзакции
+     *
+     * @param itemRequest сохраненный запрос
+     */
+    public void requestCreated(ItemRequest itemRequest) {
+        long id = itemRequest.getId();
+        OpenRequestIndex.Entry entry = new OpenRequestIndex.Entry(itemRequest.getUser().getId(),
+                RequestTerms.of(itemRequest.getDescription()));
+
+        TransactionHooks.afterCommit(() -> index.put(id, entry));
+    }
+
+    /**
+     * Учесть созданную вещь: вещь по запросу закрывает его, а доступная вещь без запроса предлагается
+     * авторам подходящих открытых запросов. Вызывается в транзакции, сохранившей вещь: предложения сохраняются
+     * или удаляются в ней же, а закрытый запрос убирается из индекса после ее коммита.
+     *
+     * @param item сохраненная вещь
+     * @return id запросов, которым предложена вещь
+     */
+    public List<Long> itemCreated(Item item) {
+        if (item.getRequestId() != null) {
+            long requestId = item.getRequestId();
+            int deleted = suggestionRepository.deleteAllByRequestId(requestId);
+
+            if (deleted > 0) log.info("Запрос id = {} закрыт, удалено предложений: {}", requestId, deleted);
+            TransactionHooks.afterCommit(() -> index.remove(requestId));
+            return List.of();
+        }
+        if (!Boolean.TRUE.equals(item.getAvailable())) return List.of();
+
+        List<String> terms = RequestTerms.of(item.getName());
+        int minMatched = Math.max(1, (int) Math.ceil(terms.size() * minShare));
+        List<Long> requestIds = index.match(terms, minMatched, item.getOwner().getId());
+
+        if (requestIds.isEmpty()) return requestIds;
+
+        LocalDateTime now = LocalDateTime.now();
+
+        suggestionRepository.saveAll(requestIds.stream()
+                .map(requestId -> {
+                    RequestSuggestion suggestion = new RequestSuggestion();
+
+                    suggestion.setRequestId(requestId);
+                    suggestion.setItemId(item.getId());
+                    suggestion.setCreated(now);
+                    return suggestion;
+                })
+                .collect(Collectors.toList()));
+        log.info("Вещь id = {} предложена по запросам: {}", item.getId(), requestIds);
+        return requestIds;
+    }
+}
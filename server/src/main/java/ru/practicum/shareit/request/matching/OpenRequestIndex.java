@@ -0,0 +1,149 @@
+package ru.practicum.shareit.request.matching;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Инвертированный индекс открытых запросов: основа слова -> id запросов, в описании которых она есть.
+ * Сопоставление вещи просматривает только списки основ ее названия, поэтому его стоимость зависит
+ * от вещи, а не от количества открытых запросов.
+ * Чтения выполняются параллельно, изменения - под блокировкой записи.
+ */
+public class OpenRequestIndex {
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Entry> requests = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Добавить или заменить запрос
+     *
+     * @param requestId id запроса
+     * @param entry     автор и основы слов описания
+     * @return прежняя запись или null, если запроса в индексе не было
+     */
+    public Entry put(long requestId, Entry entry) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = removeLocked(requestId);
+
+            for (String term : entry.getTerms()) {
+                postings.computeIfAbsent(term, t -> new HashSet<>()).add(requestId);
+            }
+            requests.put(requestId, entry);
+            return previous;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Убрать запрос из индекса, например когда по нему создана вещь
+     *
+     * @param requestId id запроса
+     * @return прежняя запись или null, если запроса в индексе не было
+     */
+    public Entry remove(long requestId) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(requestId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Заменить содержимое индекса
+     *
+     * @param contents id запроса -> автор и основы слов описания
+     */
+    public void rebuild(Map<Long, Entry> contents) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            requests.clear();
+            contents.forEach((requestId, entry) -> {
+                for (String term : entry.getTerms()) {
+                    postings.computeIfAbsent(term, t -> new HashSet<>()).add(requestId);
+                }
+                requests.put(requestId, entry);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Запросы, в описании которых есть не меньше minMatched основ из переданных
+     *
+     * @param terms          основы слов названия вещи
+     * @param minMatched     сколько основ должно совпасть
+     * @param excludedUserId автор, чьи запросы не подходят (владелец вещи)
+     * @return id подходящих запросов по возрастанию
+     */
+    public List<Long> match(List<String> terms, int minMatched, long excludedUserId) {
+        if (terms.isEmpty() || minMatched > terms.size()) return List.of();
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> matched = new HashMap<>();
+
+            for (String term : terms) {
+                for (Long requestId : postings.getOrDefault(term, Set.of())) {
+                    matched.merge(requestId, 1, Integer::sum);
+                }
+            }
+
+            List<Long> result = new ArrayList<>();
+
+            matched.forEach((requestId, count) -> {
+                if (count >= minMatched && requests.get(requestId).getUserId() != excludedUserId) {
+                    result.add(requestId);
+                }
+            });
+            Collections.sort(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return количество запросов в индексе
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return requests.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Entry removeLocked(long requestId) {
+        Entry previous = requests.remove(requestId);
+
+        if (previous == null) return null;
+
+        for (String term : previous.getTerms()) {
+            Set<Long> ids = postings.get(term);
+
+            ids.remove(requestId);
+            if (ids.isEmpty()) postings.remove(term);
+        }
+        return previous;
+    }
+
+    /**
+     * Открытый запрос в индексе: автор и основы слов описания
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Entry {
+        private final long userId;
+        private final List<String> terms;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.request.matching;
+
+import ru.practicum.shareit.utilities.SearchTerms;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Основы слов для сопоставления описаний запросов с названиями вещей.
+ * Слова короче {@link #STEM_LENGTH} букв (предлоги, союзы) отбрасываются, остальные обрезаются
+ * до первых {@link #STEM_LENGTH} букв: «щётка» и «щёткой» дают одну основу.
+ */
+public final class RequestTerms {
+    public static final int STEM_LENGTH = 4;
+
+    private RequestTerms() {
+    }
+
+    /**
+     * Основы слов текста без повторов, в порядке появления
+     *
+     * @param text текст
+     * @return основы; пустой список, если в тексте нет достаточно длинных слов
+     */
+    public static List<String> of(String text) {
+        return SearchTerms.of(text).stream()
+                .filter(term -> term.length() >= STEM_LENGTH)
+                .map(term -> term.replace('ё', 'е').substring(0, STEM_LENGTH))
+                .distinct()
+                .collect(Collectors.toList());
+    }
+}
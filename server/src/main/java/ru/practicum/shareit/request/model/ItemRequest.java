@@ -2,17 +2,19 @@ package ru.practicum.shareit.request.model;
 
 import lombok.Getter;
 import lombok.Setter;
-import ru.practicum.shareit.item.model.Item;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Getter
 @Setter
 @Entity
 @Table(name = "requests", schema = "public")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class ItemRequest {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -20,10 +22,11 @@ public class ItemRequest {
     private String description;
     @Column(name = "created_at")
     private LocalDateTime created;
-    @OneToMany
-    @JoinColumn(name = "request_id")
-    private List<Item> items;
-    @OneToOne
+    /**
+     * Автор запроса. Вещи, созданные по запросу, читаются отдельно по Item.requestId
+     * одним запросом на всю страницу запросов.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.request.model;
+
+/**
+ * Счетчики запросов пользователя: все запросы, запросы, на которые создана хотя бы одна вещь, и созданные вещи
+ */
+public interface ItemRequestSummary {
+    Long getRequests();
+
+    Long getAnsweredRequests();
+
+    Long getItems();
+}
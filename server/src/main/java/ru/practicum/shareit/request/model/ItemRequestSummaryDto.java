@@ -0,0 +1,24 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Сводка по запросам пользователя
+ */
+@Getter
+@AllArgsConstructor
+public class ItemRequestSummaryDto {
+    /**
+     * Количество запросов
+     */
+    private final long requests;
+    /**
+     * Количество открытых запросов: по ним еще не создано ни одной вещи
+     */
+    private final long openRequests;
+    /**
+     * Количество вещей, созданных по запросам
+     */
+    private final long itemsReceived;
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Вещь, предложенная автору запроса
+ */
+@Getter
+@AllArgsConstructor
+public class ItemSuggestionDto {
+    private final Long requestId;
+    private final Long itemId;
+    private final String name;
+    private final String description;
+    private final Boolean available;
+    private final LocalDateTime created;
+}
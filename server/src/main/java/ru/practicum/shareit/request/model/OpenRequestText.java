@@ -0,0 +1,12 @@
+package ru.practicum.shareit.request.model;
+
+/**
+ * Описание открытого запроса для индекса сопоставления
+ */
+public interface OpenRequestText {
+    Long getId();
+
+    Long getUserId();
+
+    String getDescription();
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.request.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Вещь, подходящая под открытый запрос: найдена сопоставлением названия вещи с описанием запроса
+ * при создании вещи без requestId
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "request_suggestions", schema = "public")
+public class RequestSuggestion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    @Column(name = "request_id", nullable = false)
+    private Long requestId;
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+    private LocalDateTime created;
+}
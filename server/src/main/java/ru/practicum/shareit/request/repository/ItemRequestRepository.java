@@ -2,13 +2,71 @@ package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.ItemRequestSummary;
+import ru.practicum.shareit.request.model.OpenRequestText;
 import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
-public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>, ItemRequestRepositoryCustom {
     List<ItemRequest> getItemRequestByUser_IdOrderByCreated(Long requestOwnerId);
 
+    /**
+     * Страница запросов пользователя (индекс requests_user_id_created_at_idx)
+     *
+     * @param requestOwnerId id автора запросов
+     * @return запросы в порядке сортировки страницы
+     */
+    List<ItemRequest> findAllByUser_Id(Long requestOwnerId, Pageable pageable);
+
+    /**
+     * Сводка по запросам пользователя одним запросом
+     *
+     * @param requestOwnerId id автора запросов
+     * @return количество запросов, запросов с вещами и вещей, созданных по запросам
+     */
+    @Query("select count(distinct r.id) as requests, count(distinct i.requestId) as answeredRequests, " +
+            "count(i.id) as items " +
+            "from ItemRequest r left join Item i on i.requestId = r.id where r.user.id = :requestOwnerId")
+    ItemRequestSummary summarize(@Param("requestOwnerId") Long requestOwnerId);
+
+    /**
+     * Описания запросов, по которым еще не создано ни одной вещи
+     */
+    @Query("select r.id as id, r.user.id as userId, r.description as description from ItemRequest r " +
+            "where not exists (select i.id from Item i where i.requestId = r.id)")
+    List<OpenRequestText> findAllOpenTexts();
+
+    @Query("select r.user.id from ItemRequest r where r.id = :requestId")
+    Optional<Long> findUserIdById(@Param("requestId") Long requestId);
+
     List<ItemRequest> getAllByUserNot(User user, Pageable pageable);
+
+    /**
+     * Первая страница ленты чужих запросов: от новых к старым
+     *
+     * @param userId id пользователя, чьи запросы не попадают в ленту
+     * @return запросы по убыванию (created, id)
+     */
+    List<ItemRequest> findAllByUser_IdNotOrderByCreatedDescIdDesc(Long userId, Pageable pageable);
+
+    /**
+     * Следующая страница ленты чужих запросов: запросы строго после ключа (created, id) последнего запроса
+     * предыдущей страницы, без смещения (индекс requests_created_at_id_idx)
+     *
+     * @param userId  id пользователя, чьи запросы не попадают в ленту
+     * @param created время создания последнего запроса предыдущей страницы
+     * @param id      id последнего запроса предыдущей страницы
+     * @return запросы по убыванию (created, id)
+     */
+    @Query("select r from ItemRequest r where r.user.id <> :userId " +
+            "and (r.created < :created or (r.created = :created and r.id < :id)) " +
+            "order by r.created desc, r.id desc")
+    List<ItemRequest> findFeedAfter(@Param("userId") Long userId, @Param("created") LocalDateTime created,
+                                    @Param("id") Long id, Pageable pageable);
 }
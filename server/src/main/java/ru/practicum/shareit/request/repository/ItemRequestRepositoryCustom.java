@@ -0,0 +1,24 @@
+package ru.practicum.shareit.request.repository;
+
+import ru.practicum.shareit.utilities.models.ScoredId;
+
+import java.util.List;
+
+/**
+ * Запросы к запросам вещей, которые не выражаются через методы Spring Data
+ */
+public interface ItemRequestRepositoryCustom {
+    /**
+     * Полнотекстовый поиск открытых (без созданных вещей) чужих запросов по описанию, страница по ключу
+     * последнего запроса предыдущей страницы (search-after). Каждое слово должно встречаться в описании
+     * как начало слова (в H2 - после пробела или в начале описания). Порядок выдачи - по убыванию релевантности,
+     * затем по возрастанию id (в H2 релевантность всегда 0).
+     *
+     * @param userId id пользователя, чьи запросы не попадают в выдачу
+     * @param text   текст запроса
+     * @param after  ключ последнего запроса предыдущей страницы или null для первой страницы
+     * @param limit  размер страницы
+     * @return id и релевантность запросов страницы
+     */
+    List<ScoredId> searchAfter(Long userId, String text, ScoredId after, int limit);
+}
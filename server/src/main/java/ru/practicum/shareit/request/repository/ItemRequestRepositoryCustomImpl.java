@@ -0,0 +1,60 @@
+package ru.practicum.shareit.request.repository;
+
+import ru.practicum.shareit.utilities.DatabasePlatform;
+import ru.practicum.shareit.utilities.SearchAfterQuery;
+import ru.practicum.shareit.utilities.SearchTerms;
+import ru.practicum.shareit.utilities.models.ScoredId;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.sql.DataSource;
+import java.util.List;
+
+public class ItemRequestRepositoryCustomImpl implements ItemRequestRepositoryCustom {
+    /*
+    открытый запрос - запрос, по которому еще не создано ни одной вещи (индекс items_request_id_idx)
+     */
+    private static final String OPEN = "WHERE r.user_id <> :userId " +
+            "AND NOT EXISTS (SELECT 1 FROM items i WHERE i.request_id = r.id) ";
+    /*
+    в PostgreSQL поиск идет по GIN-индексу requests_search_vector_idx над сгенерированной колонкой search_vector;
+    слова запроса ищутся как префиксы
+     */
+    private static final String SCORED_POSTGRESQL = "SELECT r.id, ts_rank(r.search_vector, to_tsquery('simple', :query)) " +
+            "AS score FROM requests r " + OPEN + "AND r.search_vector @@ to_tsquery('simple', :query)";
+    /*
+    в H2 слово запроса тоже ищется как начало слова описания: в начале (:termN) или после пробела (:wordN)
+     */
+    private static final String TERM_PORTABLE = " AND (LOWER(r.description) LIKE :term%1$d " +
+            "OR LOWER(r.description) LIKE :word%1$d)";
+    private final boolean postgresql;
+    @PersistenceContext
+    private EntityManager em;
+
+    public ItemRequestRepositoryCustomImpl(DataSource dataSource) {
+        this.postgresql = DatabasePlatform.of(dataSource) == DatabasePlatform.POSTGRESQL;
+    }
+
+    @Override
+    public List<ScoredId> searchAfter(Long userId, String text, ScoredId after, int limit) {
+        List<String> terms = SearchTerms.of(text);
+
+        if (terms.isEmpty()) return List.of();
+
+        Query query = em.createNativeQuery(SearchAfterQuery.sql(postgresql ? SCORED_POSTGRESQL : portableScored(terms), after))
+                .setParameter("userId", userId);
+
+        SearchTerms.bind(query, terms, postgresql);
+        return SearchAfterQuery.fetch(query, after, limit);
+    }
+
+    private static String portableScored(List<String> terms) {
+        StringBuilder sql = new StringBuilder("SELECT r.id, 0 AS score FROM requests r ").append(OPEN);
+
+        for (int i = 0; i < terms.size(); i++) {
+            sql.append(String.format(TERM_PORTABLE, i));
+        }
+        return sql.toString();
+    }
+}
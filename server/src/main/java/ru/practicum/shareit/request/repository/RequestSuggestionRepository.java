@@ -0,0 +1,39 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.request.model.ItemSuggestionDto;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+
+import java.util.List;
+
+public interface RequestSuggestionRepository extends JpaRepository<RequestSuggestion, Long> {
+    /**
+     * Вещи, предложенные по открытым запросам пользователя, одним запросом без загрузки сущностей.
+     * Запрос, по которому уже создана вещь, закрыт: его предложения не возвращаются, даже если были
+     * сохранены параллельной транзакцией после удаления в {@link #deleteAllByRequestId(Long)}.
+     *
+     * @param requestOwnerId id автора запросов
+     * @return предложения от новых к старым
+     */
+    @Query("select new ru.practicum.shareit.request.model.ItemSuggestionDto(s.requestId, i.id, i.name, " +
+            "i.description, i.available, s.created) " +
+            "from RequestSuggestion s join Item i on i.id = s.itemId " +
+            "where s.requestId in (select r.id from ItemRequest r where r.user.id = :requestOwnerId) " +
+            "and not exists (select c.id from Item c where c.requestId = s.requestId) " +
+            "order by s.created desc, s.id desc")
+    List<ItemSuggestionDto> findAllByRequestOwnerId(@Param("requestOwnerId") Long requestOwnerId, Pageable pageable);
+
+    /**
+     * Удаление предложений по запросу, закрытому созданной по нему вещью
+     *
+     * @param requestId id запроса
+     * @return количество удаленных предложений
+     */
+    @Modifying
+    @Query("delete from RequestSuggestion s where s.requestId = :requestId")
+    int deleteAllByRequestId(@Param("requestId") Long requestId);
+}
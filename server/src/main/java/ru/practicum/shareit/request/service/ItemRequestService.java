@@ -3,6 +3,10 @@ package ru.practicum.shareit.request.service;
 import ru.practicum.shareit.request.model.ItemRequestDtoAfterCreate;
 import ru.practicum.shareit.request.model.ItemRequestDtoInfo;
 import ru.practicum.shareit.request.model.ItemRequestDtoOnCreate;
+import ru.practicum.shareit.request.model.ItemRequestSummaryDto;
+import ru.practicum.shareit.request.model.ItemSuggestionDto;
+
+import ru.practicum.shareit.utilities.models.CursorPage;
 
 import java.util.List;
 
@@ -11,7 +15,42 @@ public interface ItemRequestService {
 
     List<ItemRequestDtoInfo> getRequestsByOwner(Long ownerId);
 
+    List<ItemRequestDtoInfo> getRequestsByOwner(Long ownerId, Integer from, Integer size);
+
+    ItemRequestSummaryDto getSummary(Long ownerId);
+
+    /**
+     * Вещи, подходящие под запросы пользователя, найденные при их создании
+     *
+     * @param ownerId id автора запросов
+     * @param from    смещение
+     * @param size    размер страницы
+     * @return предложения от новых к старым
+     */
+    List<ItemSuggestionDto> getSuggestions(Long ownerId, Integer from, Integer size);
+
     ItemRequestDtoInfo getRequestById(Long requestId, Long userRequestFromId);
 
     List<ItemRequestDtoInfo> getAllRequests(Integer from, Integer size, Long userRequestFromId);
+
+    /**
+     * Лента чужих запросов от новых к старым с постраничной выборкой по курсору
+     *
+     * @param userRequestFromId id пользователя
+     * @param cursor            курсор последнего запроса предыдущей страницы, пустой для первой страницы
+     * @param size              размер страницы
+     * @return страница запросов и курсор следующей страницы
+     */
+    CursorPage<ItemRequestDtoInfo> getAllRequestsPage(Long userRequestFromId, String cursor, Integer size);
+
+    /**
+     * Полнотекстовый поиск открытых чужих запросов по описанию с постраничной выборкой по курсору
+     *
+     * @param userId id пользователя
+     * @param text   текст запроса
+     * @param cursor курсор последнего запроса предыдущей страницы, пустой для первой страницы
+     * @param size   размер страницы
+     * @return страница запросов по убыванию релевантности и курсор следующей страницы
+     */
+    CursorPage<ItemRequestDtoInfo> searchRequests(Long userId, String text, String cursor, Integer size);
 }
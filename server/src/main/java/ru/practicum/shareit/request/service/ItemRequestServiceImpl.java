@@ -4,34 +4,51 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.model.NotFoundException;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.item.service.ItemDtoMapper;
+import ru.practicum.shareit.request.matching.ItemRequestMatcher;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.model.ItemRequestDtoAfterCreate;
 import ru.practicum.shareit.request.model.ItemRequestDtoInfo;
 import ru.practicum.shareit.request.model.ItemRequestDtoOnCreate;
+import ru.practicum.shareit.request.model.ItemRequestSummaryDto;
+import ru.practicum.shareit.request.model.ItemSuggestionDto;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilities.EntityCache;
+import ru.practicum.shareit.utilities.models.Cursor;
+import ru.practicum.shareit.utilities.models.CursorPage;
 import ru.practicum.shareit.utilities.models.Page;
+import ru.practicum.shareit.utilities.models.ScoredId;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ItemRequestServiceImpl implements ItemRequestService {
-    private final UserRepository userRepository;
+    private final EntityCache<User> userCache;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
     private final ItemRequestDtoMapper mapper;
     private final ItemDtoMapper itemDtoMapper;
+    private final ItemRequestSummaryCache summaryCache;
+    private final ItemRequestMatcher requestMatcher;
+    private final RequestSuggestionRepository suggestionRepository;
 
     @Override
+    @Transactional
     public ItemRequestDtoAfterCreate createRequest(Long userId, ItemRequestDtoOnCreate request) {
-        User user = userRepository.findById(userId)
+        User user = userCache.reference(userId)
                 .orElseThrow(() -> new NotFoundException("Не найден пользовать id = " + userId));
         ItemRequest itemRequest = mapper.fromDto(request);
 
@@ -39,6 +56,8 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         itemRequest.setUser(user);
         log.info("Сохраняем запрос: {}", itemRequest);
         itemRequestRepository.save(itemRequest);
+        summaryCache.evict(userId);
+        requestMatcher.requestCreated(itemRequest);
         log.info("Сохранено: {}", itemRequest);
 
         ItemRequestDtoAfterCreate itemRequestDtoAfterCreate = mapper.fromDroAfterCreate(itemRequest);
@@ -48,70 +67,154 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public List<ItemRequestDtoInfo> getRequestsByOwner(Long ownerId) {
-        User user = userRepository.findById(ownerId)
+        userCache.find(ownerId)
                 .orElseThrow(() -> new NotFoundException("Не найден пользовать id = " + ownerId));
         List<ItemRequest> userRequests = itemRequestRepository.getItemRequestByUser_IdOrderByCreated(ownerId);
 
         log.info("Найдены запросы: {}", userRequests);
 
-        List<ItemRequestDtoInfo> userRequestsDto = userRequests.stream()
-                .map(itemRequest -> {
-                    List<ItemRequestDtoInfo.ItemForRequestDto> itemsForRequest = new ArrayList<>();
-                    if (itemRequest.getItems() != null) {
-                        itemsForRequest = itemRequest.getItems().stream()
-                                .map(itemDtoMapper::toItemForRequestDto)
-                                .collect(Collectors.toList());
-                    } else {
-                        itemsForRequest = null;
-                    }
-                    ItemRequestDtoInfo itemRequestDtoInfo = mapper.toDtoInfo(itemRequest);
-                    itemRequestDtoInfo.setItems(itemsForRequest);
-                    return itemRequestDtoInfo;
-                })
-                .collect(Collectors.toList());
+        List<ItemRequestDtoInfo> userRequestsDto = toDtoInfo(userRequests);
+
         log.info("Возвращен список запросов: {}", userRequestsDto);
         return userRequestsDto;
     }
 
+    @Override
+    public List<ItemRequestDtoInfo> getRequestsByOwner(Long ownerId, Integer from, Integer size) {
+        userCache.find(ownerId)
+                .orElseThrow(() -> new NotFoundException("Не найден пользовать id = " + ownerId));
+
+        return toDtoInfo(itemRequestRepository.findAllByUser_Id(ownerId, new Page(from, size, Sort.by("created", "id"))));
+    }
+
+    @Override
+    public ItemRequestSummaryDto getSummary(Long ownerId) {
+        userCache.find(ownerId)
+                .orElseThrow(() -> new NotFoundException("Не найден пользовать id = " + ownerId));
+
+        return summaryCache.get(ownerId);
+    }
+
+    @Override
+    public List<ItemSuggestionDto> getSuggestions(Long ownerId, Integer from, Integer size) {
+        userCache.find(ownerId)
+                .orElseThrow(() -> new NotFoundException("Не найден пользовать id = " + ownerId));
+
+        return suggestionRepository.findAllByRequestOwnerId(ownerId, new Page(from, size, Sort.unsorted()));
+    }
+
     @Override
     public ItemRequestDtoInfo getRequestById(Long requestId, Long userRequestFromId) {
-        User user = userRepository.findById(userRequestFromId)
+        userCache.find(userRequestFromId)
                 .orElseThrow(() -> new NotFoundException("Не найден пользователь id = " + userRequestFromId));
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new NotFoundException("Не найден запрос id = " + requestId));
 
         log.info("Найден запрос: {}", itemRequest);
+        return toDtoInfo(List.of(itemRequest)).get(0);
+    }
+
+    @Override
+    public List<ItemRequestDtoInfo> getAllRequests(Integer from, Integer size, Long userRequestFrom) {
+        User requester = userCache.find(userRequestFrom)
+                .orElseThrow(() -> new NotFoundException("Не найден пользователь id = " + userRequestFrom));
 
-        ItemRequestDtoInfo itemRequestDtoInfo = mapper.toDtoInfo(itemRequest);
+        return toDtoInfo(itemRequestRepository.getAllByUserNot(requester, new Page(from, size, Sort.by("created", "id"))));
+    }
+
+    /**
+     * Страница keyset-выборки. Запрашивается на один запрос больше, чтобы знать, есть ли следующая страница.
+     *
+     * @param cursor курсор (created, id) последнего запроса предыдущей страницы, пустой для первой страницы
+     */
+    @Override
+    public CursorPage<ItemRequestDtoInfo> getAllRequestsPage(Long userRequestFromId, String cursor, Integer size) {
+        userCache.find(userRequestFromId)
+                .orElseThrow(() -> new NotFoundException("Не найден пользователь id = " + userRequestFromId));
+        Page page = new Page(0, size + 1, Sort.unsorted());
+        List<ItemRequest> requests;
+
+        if (cursor == null || cursor.isEmpty()) {
+            requests = itemRequestRepository.findAllByUser_IdNotOrderByCreatedDescIdDesc(userRequestFromId, page);
+        } else {
+            Cursor decoded = Cursor.decode(cursor, 2);
+
+            requests = itemRequestRepository.findFeedAfter(userRequestFromId, decoded.getDateTime(0),
+                    decoded.getLong(1), page);
+        }
+
+        String nextCursor = null;
+
+        if (requests.size() > size) {
+            requests = requests.subList(0, size);
+            ItemRequest last = requests.get(size - 1);
 
-        if (itemRequest.getItems() != null) {
-            itemRequestDtoInfo.setItems(itemRequest.getItems().stream()
-                    .map(itemDtoMapper::toItemForRequestDto)
-                    .collect(Collectors.toList()));
+            nextCursor = Cursor.encode(last.getCreated(), last.getId());
         }
-        return mapper.toDtoInfo(itemRequest);
+        return new CursorPage<>(toDtoInfo(requests), nextCursor);
     }
 
+    /**
+     * Страница поиска по ключу (score, id). Запрашивается на один запрос больше, чтобы знать, есть ли следующая страница.
+     */
     @Override
-    public List<ItemRequestDtoInfo> getAllRequests(Integer from, Integer size, Long userRequestFrom) {
-        User requester = userRepository.findById(userRequestFrom)
-                .orElseThrow(() -> new NotFoundException("Не найден пользователь id = " + userRequestFrom));
-        List<ItemRequestDtoInfo> requests = itemRequestRepository
-                .getAllByUserNot(requester, new Page(from, size, Sort.unsorted()))
-                .stream()
+    public CursorPage<ItemRequestDtoInfo> searchRequests(Long userId, String text, String cursor, Integer size) {
+        userCache.find(userId)
+                .orElseThrow(() -> new NotFoundException("Не найден пользователь id = " + userId));
+        if (text.isBlank()) return new CursorPage<>(Collections.emptyList(), null);
+
+        ScoredId after = null;
+
+        if (cursor != null && !cursor.isEmpty()) {
+            Cursor decoded = Cursor.decode(cursor, 2);
+
+            after = new ScoredId(decoded.getLong(1), decoded.getDouble(0));
+        }
+        List<ScoredId> hits = itemRequestRepository.searchAfter(userId, text, after, size + 1);
+        String nextCursor = null;
+
+        if (hits.size() > size) {
+            hits = hits.subList(0, size);
+            ScoredId last = hits.get(size - 1);
+
+            nextCursor = Cursor.encode(last.getScore(), last.getId());
+        }
+        Map<Long, ItemRequest> requests = itemRequestRepository.findAllById(hits.stream()
+                        .map(ScoredId::getId)
+                        .collect(Collectors.toList())).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, request -> request));
+
+        return new CursorPage<>(toDtoInfo(hits.stream()
+                .map(hit -> requests.get(hit.getId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList())), nextCursor);
+    }
+
+    /**
+     * Маппинг страницы запросов вместе с вещами, созданными по ним: вещи всех запросов читаются
+     * одним запросом по id запросов, а не отдельным запросом на каждый
+     *
+     * @param requests запросы
+     * @return запросы с вещами в том же порядке
+     */
+    private List<ItemRequestDtoInfo> toDtoInfo(List<ItemRequest> requests) {
+        if (requests.isEmpty()) return List.of();
+
+        List<Long> requestIds = requests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemRequestDtoInfo.ItemForRequestDto>> itemsByRequestId = itemRepository
+                .findAllByRequestIdInOrderByIdAsc(requestIds).stream()
+                .map(itemDtoMapper::toItemForRequestDto)
+                .collect(Collectors.groupingBy(ItemRequestDtoInfo.ItemForRequestDto::getRequestId));
+
+        return requests.stream()
                 .map(itemRequest -> {
-                    List<ItemRequestDtoInfo.ItemForRequestDto> items = new ArrayList<>();
-                    if (itemRequest.getItems() != null) {
-                        items = itemRequest.getItems().stream()
-                                .map(itemDtoMapper::toItemForRequestDto)
-                                .collect(Collectors.toList());
-                    }
                     ItemRequestDtoInfo itemRequestDto = mapper.toDtoInfo(itemRequest);
-                    itemRequestDto.setItems(items);
+
+                    itemRequestDto.setItems(itemsByRequestId.getOrDefault(itemRequest.getId(), new ArrayList<>()));
                     return itemRequestDto;
                 })
                 .collect(Collectors.toList());
-
-        return requests;
     }
 }
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.request.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.request.model.ItemRequestSummary;
+import ru.practicum.shareit.request.model.ItemRequestSummaryDto;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.utilities.TransactionHooks;
+
+import java.time.Duration;
+
+/**
+ * Кэш сводок по запросам пользователей (Caffeine, с ограничением размера и TTL), ключ - id пользователя.
+ * <p>
+ * Сводка сбрасывается, когда пользователь создает запрос и когда по его запросу создается вещь.
+ * Метрики публикуются в actuator как cache.* с тегом cache=requests.summary.
+ */
+@Component
+public class ItemRequestSummaryCache {
+    public static final String NAME = "requests.summary";
+    private final Cache<Long, ItemRequestSummaryDto> cache;
+    private final ItemRequestRepository itemRequestRepository;
+
+    public ItemRequestSummaryCache(ItemRequestRepository itemRequestRepository, MeterRegistry meterRegistry,
+                                   @Value("${shareit.requests.summary.cache.max-size:10000}") long maxSize,
+                                   @Value("${shareit.requests.summary.cache.ttl:10m}") Duration ttl) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    /**
+     * @param userId id пользователя
+     * @return сводка из кэша или посчитанная одним запросом к БД
+     */
+    public ItemRequestSummaryDto get(long userId) {
+        return cache.get(userId, id -> {
+            ItemRequestSummary summary = itemRequestRepository.summarize(id);
+
+            return new ItemRequestSummaryDto(summary.getRequests(),
+                    summary.getRequests() - summary.getAnsweredRequests(), summary.getItems());
+        });
+    }
+
+    /**
+     * Сбросить сводку пользователя. Запись убирается сразу и еще раз после завершения транзакции:
+     * сводка, посчитанная другим запросом до коммита, не останется в кэше.
+     *
+     * @param userId id пользователя
+     */
+    public void evict(long userId) {
+        cache.invalidate(userId);
+        TransactionHooks.afterCompletion(() -> cache.invalidate(userId));
+    }
+
+    /**
+     * Сбросить сводку автора запроса после создания вещи по этому запросу
+     *
+     * @param requestId id запроса
+     */
+    public void evictByRequest(long requestId) {
+        itemRequestRepository.findUserIdById(requestId).ifPresent(this::evict);
+    }
+}
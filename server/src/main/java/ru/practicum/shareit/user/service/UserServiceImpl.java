@@ -7,6 +7,7 @@ import ru.practicum.shareit.exception.model.NotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.UserDto;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilities.EntityCache;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -26,6 +27,10 @@ public class UserServiceImpl implements UserService {
      * Маппер пользователей
      */
     private final UserDtoMapper mapper;
+    /**
+     * Кэш пользователей для чтения
+     */
+    private final EntityCache<User> userCache;
 
     @Override
     public List<UserDto> getAll() {
@@ -39,7 +44,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public UserDto getUserDtoById(long id) {
-        User user = userRepository.findById(id)
+        User user = userCache.find(id)
                 .orElseThrow(() -> new NotFoundException("Не найден пользователь с id = " + id));
 
         log.info("Возвращен пользователь: {}", user);
@@ -51,6 +56,7 @@ public class UserServiceImpl implements UserService {
         User user = mapper.fromDto(userDto);
 
         userRepository.save(user);
+        userCache.evict(user.getId());
         log.info("Создан пользователь: {}", user);
         return mapper.toDto(user);
     }
@@ -63,6 +69,7 @@ public class UserServiceImpl implements UserService {
 
         mapper.fromDto(userDtoUpdated, user);
         userRepository.save(user);
+        userCache.evict(userId);
         log.info("Обновлен пользователь: {}", user);
         return mapper.toDto(user);
     }
@@ -73,6 +80,7 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new NotFoundException("Не найден пользователь с id = " + userId));
 
         userRepository.delete(user);
+        userCache.evict(userId);
         log.info("Удален пользователь: {}", user);
     }
 }
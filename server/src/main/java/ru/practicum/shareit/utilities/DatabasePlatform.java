@@ -0,0 +1,26 @@
+package ru.practicum.shareit.utilities;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * СУБД, с которой работает приложение. Нужна там, где для PostgreSQL есть специальный запрос
+ * (диапазоны, полнотекстовый поиск), а для H2 в профилях ci и test используется переносимый вариант.
+ */
+public enum DatabasePlatform {
+    POSTGRESQL,
+    OTHER;
+
+    public static DatabasePlatform of(DataSource dataSource) {
+        try {
+            String productName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+
+            return "PostgreSQL".equals(productName) ? POSTGRESQL : OTHER;
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Не удалось определить СУБД", e);
+        }
+    }
+}
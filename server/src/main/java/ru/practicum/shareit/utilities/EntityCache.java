@@ -0,0 +1,68 @@
+package ru.practicum.shareit.utilities;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Локальный read-through кэш сущностей по id перед репозиторием (Caffeine, с ограничением размера и TTL).
+ * <p>
+ * Возвращает отсоединенные сущности, общие для всех запросов: их можно читать и использовать как ссылки
+ * в запросах, но нельзя изменять - для изменения сущность загружается из репозитория, а после записи
+ * вызывается {@link #evict(long)}. Для связи с новыми сущностями используется {@link #reference(long)}.
+ * Отсутствующие сущности не кэшируются.
+ *
+ * @param <T> тип сущности
+ */
+public class EntityCache<T> {
+    private final Cache<Long, T> cache;
+    private final Function<Long, Optional<T>> loader;
+    private final Function<Long, T> referencer;
+
+    public EntityCache(String name, Function<Long, Optional<T>> loader, Function<Long, T> referencer, long maxSize,
+                       Duration ttl, MeterRegistry meterRegistry) {
+        this.loader = loader;
+        this.referencer = referencer;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    /**
+     * @param id id сущности
+     * @return сущность из кэша или загруженная из репозитория
+     */
+    public Optional<T> find(long id) {
+        return Optional.ofNullable(cache.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    /**
+     * Ссылка на сущность для связи с сохраняемыми сущностями: существование проверяется по кэшу,
+     * а ссылка берется из текущего контекста персистентности без запроса к БД
+     *
+     * @param id id сущности
+     * @return ссылка или пусто, если сущность не найдена
+     */
+    public Optional<T> reference(long id) {
+        return find(id).map(entity -> referencer.apply(id));
+    }
+
+    /**
+     * Убрать сущность из кэша после ее изменения или удаления. Запись убирается сразу и еще раз
+     * после завершения транзакции: копия, прочитанная до коммита или из откаченной транзакции, не останется в кэше.
+     *
+     * @param id id сущности
+     */
+    public void evict(long id) {
+        cache.invalidate(id);
+        TransactionHooks.afterCompletion(() -> cache.invalidate(id));
+    }
+}
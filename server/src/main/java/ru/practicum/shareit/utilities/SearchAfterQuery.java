@@ -0,0 +1,53 @@
+package ru.practicum.shareit.utilities;
+
+import ru.practicum.shareit.utilities.models.ScoredId;
+
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Постраничная выборка результатов полнотекстового поиска по ключу (score, id) последней записи
+ * предыдущей страницы (search-after), без смещения. Порядок выдачи - по убыванию релевантности,
+ * затем по возрастанию id.
+ */
+public final class SearchAfterQuery {
+    private SearchAfterQuery() {
+    }
+
+    /**
+     * score сравнивается с тем же значением real, которое вернула БД, поэтому граница страницы не смещается
+     *
+     * @param scored запрос, возвращающий колонки id и score
+     * @param after  ключ последней записи предыдущей страницы или null для первой страницы
+     * @return запрос страницы
+     */
+    public static String sql(String scored, ScoredId after) {
+        return "SELECT id, score FROM (" + scored + ") scored " +
+                (after == null ? "" : "WHERE score < :afterScore OR score = :afterScore AND id > :afterId ") +
+                "ORDER BY score DESC, id";
+    }
+
+    /**
+     * @param query запрос, построенный по {@link #sql}, с уже привязанными параметрами поиска
+     * @param after ключ последней записи предыдущей страницы или null для первой страницы
+     * @param limit размер страницы
+     * @return id и релевантность записей страницы
+     */
+    public static List<ScoredId> fetch(Query query, ScoredId after, int limit) {
+        if (after != null) {
+            query.setParameter("afterScore", after.getScore());
+            query.setParameter("afterId", after.getId());
+        }
+
+        List<?> rows = query.setMaxResults(limit).getResultList();
+        List<ScoredId> ids = new ArrayList<>(rows.size());
+
+        for (Object row : rows) {
+            Object[] columns = (Object[]) row;
+
+            ids.add(new ScoredId(((Number) columns[0]).longValue(), ((Number) columns[1]).doubleValue()));
+        }
+        return ids;
+    }
+}
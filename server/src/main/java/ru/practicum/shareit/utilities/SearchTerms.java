@@ -0,0 +1,54 @@
+package ru.practicum.shareit.utilities;
+
+import javax.persistence.Query;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Разбиение текста на слова для поиска: последовательности букв и цифр в нижнем регистре.
+ * Одинаково используется при индексации и при разборе запроса.
+ */
+public final class SearchTerms {
+    private SearchTerms() {
+    }
+
+    /**
+     * Слова текста без повторов, в порядке появления
+     *
+     * @param text текст
+     * @return слова; пустой список, если в тексте нет ни букв, ни цифр
+     */
+    public static List<String> of(String text) {
+        if (text == null) return List.of();
+
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Привязка слов запроса к параметрам поиска в БД: в PostgreSQL - :query, слова-префиксы tsquery
+     * ("дрел:* & ударная:*"), в остальных БД - шаблоны LIKE начала слова в начале текста (:termN = "слово%")
+     * и после пробела (:wordN = "% слово%").
+     * Слова состоят только из букв и цифр, поэтому синтаксис tsquery и шаблоны LIKE экранировать не нужно
+     *
+     * @param query      запрос с параметрами :query или :termN и :wordN
+     * @param terms      слова запроса, полученные через {@link #of(String)}
+     * @param postgresql true, если запрос выполняется в PostgreSQL
+     */
+    public static void bind(Query query, List<String> terms, boolean postgresql) {
+        if (postgresql) {
+            query.setParameter("query", terms.stream()
+                    .map(term -> term + ":*")
+                    .collect(Collectors.joining(" & ")));
+            return;
+        }
+        for (int i = 0; i < terms.size(); i++) {
+            query.setParameter("term" + i, terms.get(i) + "%");
+            query.setParameter("word" + i, "% " + terms.get(i) + "%");
+        }
+    }
+}
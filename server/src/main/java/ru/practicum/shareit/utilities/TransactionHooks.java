@@ -0,0 +1,51 @@
+package ru.practicum.shareit.utilities;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Вспомогательные методы для привязки действий к завершению текущей транзакции.
+ * Используются in-memory структурами, которые должны меняться только вместе с закоммиченными данными в БД.
+ */
+public final class TransactionHooks {
+    private TransactionHooks() {
+    }
+
+    /**
+     * Выполнить действие после завершения транзакции (коммит или откат).
+     * Если транзакции нет - действие выполняется сразу.
+     *
+     * @param action действие
+     */
+    public static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Выполнить действие после коммита текущей транзакции; при откате действие не выполняется.
+     * Если транзакции нет - действие выполняется сразу.
+     *
+     * @param action действие
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.utilities.models;
+
+import ru.practicum.shareit.exception.model.BadCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Непрозрачный курсор keyset-пагинации: значения ключа сортировки последней строки страницы.
+ * Клиент получает его в заголовке X-Next-Cursor и передает обратно без изменений.
+ */
+public final class Cursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String SEPARATOR = "|";
+    private final List<String> values;
+
+    private Cursor(List<String> values) {
+        this.values = values;
+    }
+
+    /**
+     * @param values значения ключа сортировки (не должны содержать символ '|')
+     * @return строка курсора в base64url
+     */
+    public static String encode(Object... values) {
+        String raw = Arrays.stream(values)
+                .map(String::valueOf)
+                .collect(Collectors.joining(SEPARATOR));
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token          строка курсора, полученная от клиента
+     * @param expectedValues ожидаемое количество значений ключа
+     * @return разобранный курсор
+     */
+    public static Cursor decode(String token, int expectedValues) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            List<String> values = Arrays.asList(raw.split("\\" + SEPARATOR, -1));
+
+            if (values.size() != expectedValues) throw new BadCursorException("Некорректный курсор: " + token);
+            return new Cursor(values);
+        } catch (IllegalArgumentException e) {
+            throw new BadCursorException("Некорректный курсор: " + token);
+        }
+    }
+
+    public String getString(int index) {
+        return values.get(index);
+    }
+
+    public long getLong(int index) {
+        try {
+            return Long.parseLong(values.get(index));
+        } catch (NumberFormatException e) {
+            throw new BadCursorException("Некорректный курсор: " + values);
+        }
+    }
+
+    public double getDouble(int index) {
+        try {
+            return Double.parseDouble(values.get(index));
+        } catch (NumberFormatException e) {
+            throw new BadCursorException("Некорректный курсор: " + values);
+        }
+    }
+
+    public LocalDateTime getDateTime(int index) {
+        try {
+            return LocalDateTime.parse(values.get(index));
+        } catch (DateTimeParseException e) {
+            throw new BadCursorException("Некорректный курсор: " + values);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package ru.practicum.shareit.utilities.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Страница keyset-выборки: строки и курсор следующей страницы (null, если страница последняя)
+ */
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+    private final List<T> content;
+    private final String nextCursor;
+}
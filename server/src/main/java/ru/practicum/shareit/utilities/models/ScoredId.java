@@ -0,0 +1,34 @@
+package ru.practicum.shareit.utilities.models;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * id найденной записи и ее релевантность. Естественный порядок - порядок выдачи:
+ * по убыванию релевантности, при равной релевантности - по возрастанию id.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class ScoredId implements Comparable<ScoredId> {
+    private final long id;
+    private final double score;
+
+    /**
+     * @param after ключ последней записи предыдущей страницы или null для первой страницы
+     * @return true, если запись идет в выдаче после after
+     */
+    public boolean isAfter(ScoredId after) {
+        return after == null || compareTo(after) > 0;
+    }
+
+    @Override
+    public int compareTo(ScoredId other) {
+        int byScore = Double.compare(other.score, score);
+
+        return byScore != 0 ? byScore : Long.compare(id, other.id);
+    }
+}
@@ -0,0 +1,27 @@
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+CREATE INDEX IF NOT EXISTS bookings_item_period_approved_idx
+    ON bookings USING gist (item_id, tsrange(start_booking, greatest(start_booking, end_booking)))
+    WHERE status = 'APPROVED';
+
+ALTER TABLE items
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (setweight(to_tsvector('simple', name), 'A')
+            || setweight(to_tsvector('simple', description), 'B')) STORED;
+
+CREATE INDEX IF NOT EXISTS items_search_vector_idx
+    ON items USING gin (search_vector)
+    WHERE available;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS items_text_trgm_idx
+    ON items USING gin ((name || ' ' || description) gin_trgm_ops)
+    WHERE available;
+
+ALTER TABLE requests
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (to_tsvector('simple', description)) STORED;
+
+CREATE INDEX IF NOT EXISTS requests_search_vector_idx
+    ON requests USING gin (search_vector);
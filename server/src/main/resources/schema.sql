@@ -64,4 +64,56 @@ CREATE TABLE IF NOT EXISTS comments
     item_id     BIGINT    NOT NULL
         CONSTRAINT comments_items_id_fk
             REFERENCES items
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS bookings_item_status_start_idx
+    ON bookings (item_id, status, start_booking);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_start_id_idx
+    ON bookings (booker_id, start_booking DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS bookings_item_start_id_idx
+    ON bookings (item_id, start_booking DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS items_owner_id_idx
+    ON items (owner_id, id);
+
+CREATE INDEX IF NOT EXISTS items_request_id_idx
+    ON items (request_id);
+
+CREATE INDEX IF NOT EXISTS requests_created_at_id_idx
+    ON requests (created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS requests_user_id_created_at_idx
+    ON requests (user_id, created_at, id);
+
+CREATE TABLE IF NOT EXISTS request_suggestions
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY
+        CONSTRAINT request_suggestions_pk
+            PRIMARY KEY,
+    request_id BIGINT    NOT NULL
+        CONSTRAINT request_suggestions_requests_id_fk
+            REFERENCES requests ON DELETE CASCADE,
+    item_id    BIGINT    NOT NULL
+        CONSTRAINT request_suggestions_items_id_fk
+            REFERENCES items ON DELETE CASCADE,
+    created    TIMESTAMP NOT NULL,
+    CONSTRAINT request_suggestions_request_item_uq
+        UNIQUE (request_id, item_id)
+);
+
+CREATE TABLE IF NOT EXISTS item_booking_pointers
+(
+    item_id         BIGINT NOT NULL
+        CONSTRAINT item_booking_pointers_pk
+            PRIMARY KEY
+        CONSTRAINT item_booking_pointers_items_id_fk
+            REFERENCES items ON DELETE CASCADE,
+    last_booking_id BIGINT,
+    next_booking_id BIGINT,
+    valid_until     TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS item_booking_pointers_valid_until_idx
+    ON item_booking_pointers (valid_until);
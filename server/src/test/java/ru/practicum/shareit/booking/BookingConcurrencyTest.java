@@ -0,0 +1,163 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.BookingDtoOnCreate;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.model.ItemNotAvailableException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Тесты работают без общей транзакции: каждый вызов сервиса коммитится, как при реальных запросах
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DisplayName("Booking concurrency")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class BookingConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int BOOKINGS_PER_THREAD = 25;
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.MINUTES);
+    private ExecutorService executor;
+    User owner;
+    User booker;
+
+    @BeforeEach
+    void init() {
+        executor = Executors.newFixedThreadPool(THREADS);
+
+        owner = new User();
+
+        owner.setName("owner");
+        owner.setEmail("concurrent-owner@owner.ru");
+        owner = userRepository.save(owner);
+
+        booker = new User();
+
+        booker.setName("booker");
+        booker.setEmail("concurrent-booker@booker.ru");
+        booker = userRepository.save(booker);
+    }
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdownNow();
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldApproveOnlyOneOfOverlappingBookings() throws Exception {
+        Item item = saveItem("item");
+        List<Long> bookingIds = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            bookingIds.add(bookingService.createBooking(bookingDto(item, start.plusMinutes(i), start.plusHours(2)),
+                    booker.getId()).getId());
+        }
+
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+
+        for (Long bookingId : bookingIds) {
+            results.add(executor.submit(() -> {
+                startSignal.await();
+                try {
+                    bookingService.confirmBooking(bookingId, owner.getId(), true);
+                    return true;
+                } catch (ItemNotAvailableException e) {
+                    return false;
+                }
+            }));
+        }
+        startSignal.countDown();
+
+        int approved = 0;
+
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS)) approved++;
+        }
+
+        assertThat(approved, equalTo(1));
+        assertThat(bookingRepository.findAllByItemAndStatus(item, Status.APPROVED, Pageable.unpaged()).size(),
+                equalTo(1));
+    }
+
+    @Test
+    void shouldBookDifferentItemsInParallel() throws Exception {
+        List<Item> items = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            items.add(saveItem("item " + i));
+        }
+
+        CountDownLatch startSignal = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+
+        for (Item item : items) {
+            results.add(executor.submit(() -> {
+                startSignal.await();
+                for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                    LocalDateTime bookingStart = start.plusHours(i);
+                    Long bookingId = bookingService.createBooking(
+                            bookingDto(item, bookingStart, bookingStart.plusMinutes(30)), booker.getId()).getId();
+
+                    bookingService.confirmBooking(bookingId, owner.getId(), true);
+                }
+                return null;
+            }));
+        }
+
+        startSignal.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        for (Item item : items) {
+            assertThat(bookingRepository.findAllByItemAndStatus(item, Status.APPROVED, Pageable.unpaged()).size(),
+                    equalTo(BOOKINGS_PER_THREAD));
+        }
+    }
+
+    private Item saveItem(String name) {
+        Item item = new Item();
+
+        item.setName(name);
+        item.setDescription("description");
+        item.setOwner(owner);
+        item.setAvailable(true);
+        return itemRepository.save(item);
+    }
+
+    private BookingDtoOnCreate bookingDto(Item item, LocalDateTime bookingStart, LocalDateTime bookingEnd) {
+        BookingDtoOnCreate bookingDtoOnCreate = new BookingDtoOnCreate();
+
+        bookingDtoOnCreate.setItemId(item.getId());
+        bookingDtoOnCreate.setStart(bookingStart);
+        bookingDtoOnCreate.setEnd(bookingEnd);
+        return bookingDtoOnCreate;
+    }
+}
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.booking;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItServer;
+import ru.practicum.shareit.booking.model.BookingDtoOnCreate;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пропускная способность создания и подтверждения брони при конкуренции потоков: все потоки бронируют
+ * одну вещь (брони сериализуются блокировкой вещи) или каждый поток - свою вещь (блокировки не пересекаются).
+ * Сервис работает в контексте Spring с H2 в памяти, каждый вызов коммитится, как при реальных запросах.
+ * Запуск: main из IDE или java -cp target/test-classes:... org.openjdk.jmh.Main BookingContentionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class BookingContentionBenchmark {
+    private final LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.HOURS);
+    /**
+     * Номер следующего часового слота: брони не пересекаются ни на одной вещи
+     */
+    private final AtomicLong slots = new AtomicLong();
+    private final AtomicLong items = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private BookingService bookingService;
+    private ItemRepository itemRepository;
+    private User owner;
+    private User booker;
+    private long sharedItemId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItServer.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN",
+                        "logging.level.org.springframework.transaction.interceptor=WARN",
+                        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN")
+                .run();
+        bookingService = context.getBean(BookingService.class);
+        itemRepository = context.getBean(ItemRepository.class);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+
+        owner = new User();
+        owner.setName("owner");
+        owner.setEmail("benchmark-owner@owner.ru");
+        owner = userRepository.save(owner);
+
+        booker = new User();
+        booker.setName("booker");
+        booker.setEmail("benchmark-booker@booker.ru");
+        booker = userRepository.save(booker);
+
+        sharedItemId = saveItem();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Своя вещь каждого потока
+     */
+    @State(Scope.Thread)
+    public static class OwnItem {
+        private long itemId;
+
+        @Setup
+        public void setUp(BookingContentionBenchmark benchmark) {
+            itemId = benchmark.saveItem();
+        }
+    }
+
+    @Benchmark
+    public long sameItem() {
+        return bookAndConfirm(sharedItemId);
+    }
+
+    @Benchmark
+    public long distinctItems(OwnItem own) {
+        return bookAndConfirm(own.itemId);
+    }
+
+    private long bookAndConfirm(long itemId) {
+        LocalDateTime bookingStart = start.plusHours(slots.getAndIncrement());
+        BookingDtoOnCreate bookingDtoOnCreate = new BookingDtoOnCreate();
+
+        bookingDtoOnCreate.setItemId(itemId);
+        bookingDtoOnCreate.setStart(bookingStart);
+        bookingDtoOnCreate.setEnd(bookingStart.plusMinutes(30));
+
+        Long bookingId = bookingService.createBooking(bookingDtoOnCreate, booker.getId()).getId();
+
+        bookingService.confirmBooking(bookingId, owner.getId(), true);
+        return bookingId;
+    }
+
+    private long saveItem() {
+        Item item = new Item();
+
+        item.setName("item " + items.incrementAndGet());
+        item.setDescription("description");
+        item.setOwner(owner);
+        item.setAvailable(true);
+        return itemRepository.save(item).getId();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookingContentionBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -16,6 +16,8 @@ import ru.practicum.shareit.booking.service.BookingDtoMapper;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.utilities.models.Cursor;
+import ru.practicum.shareit.utilities.models.CursorPage;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -96,6 +98,45 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$.booker.id", is(bookingDtoAfterCreate.getBooker().getId()), Long.class));
     }
 
+    @Test
+    void shouldCreateBookingsBatch() throws Exception {
+        when(bookingService.createBookings(Mockito.anyList(), Mockito.anyLong()))
+                .thenReturn(List.of(BookingBatchResultDto.created(0, bookingDtoAfterCreate),
+                        BookingBatchResultDto.failed(1, "Вещь забронирована")));
+
+        mockMvc.perform(
+                        post("/bookings/batch")
+                                .header(xSharerUserId, 1L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(List.of(bookingDtoOnCreate, bookingDtoOnCreate)))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].booking.id", is(bookingDtoAfterCreate.getId()), Long.class))
+                .andExpect(jsonPath("$[1].index", is(1)))
+                .andExpect(jsonPath("$[1].error", is("Вещь забронирована")));
+    }
+
+    @Test
+    void shouldConfirmBookings() throws Exception {
+        when(bookingService.confirmBookings(Mockito.anyList(), Mockito.anyLong()))
+                .thenReturn(List.of(BookingDecisionResultDto.applied(1L, Status.APPROVED),
+                        BookingDecisionResultDto.failed(2L, "Бронь уже была рассмотрена")));
+
+        mockMvc.perform(
+                        patch("/bookings/approve")
+                                .header(xSharerUserId, 1L)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(List.of(new BookingDecisionDto(1L, true),
+                                        new BookingDecisionDto(2L, false))))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is("APPROVED")))
+                .andExpect(jsonPath("$[1].bookingId", is(2L), Long.class))
+                .andExpect(jsonPath("$[1].error", is("Бронь уже была рассмотрена")));
+    }
+
     @Test
     void shouldConfirmBooking() throws Exception {
         when(bookingService.confirmBooking(Mockito.anyLong(), Mockito.anyLong(), Mockito.anyBoolean()))
@@ -168,6 +209,24 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$[0].id", is(bookingDtoAfterCreate.getId()), Long.class));
     }
 
+    @Test
+    void shouldReturnBookingsByOwnerPageWithNextCursor() throws Exception {
+        when(bookingService.getBookingsByOwnerPage(Mockito.anyLong(), Mockito.any(), Mockito.anyString(), Mockito.anyInt()))
+                .thenReturn(new CursorPage<>(List.of(bookingDtoAfterCreate), "next"));
+
+        mockMvc.perform(
+                        get("/bookings/owner")
+                                .header(xSharerUserId, 1L)
+                                .param("state", "ALL")
+                                .param("size", "1")
+                                .param("cursor", "")
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string(Cursor.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(bookingDtoAfterCreate.getId()), Long.class));
+    }
+
     @Test
     void shouldThrowBadBookingStatus() throws Exception {
         mockMvc.perform(
@@ -2,6 +2,8 @@ package ru.practicum.shareit.booking;
 
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,19 +11,31 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDtoAfterCreate;
+import ru.practicum.shareit.booking.model.BookingQuery;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.ItemBookingNeighbour;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserBookingStates;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
@@ -29,6 +43,8 @@ public class BookingRepositoryTest {
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final EntityManager em;
+    private final EntityManagerFactory entityManagerFactory;
     User booker;
     User owner;
     Item item;
@@ -121,16 +137,14 @@ public class BookingRepositoryTest {
     }
 
     @Test
-    void shouldFindByBookerId() {
+    void shouldFindByBookerAndStatus() {
         booking = bookingRepository.save(booking);
-        List<Booking> result = bookingRepository
-                .findAllByBookerAndStatus(booker, booking.getStatus(), Pageable.unpaged());
 
-        assertThat(result.size(), equalTo(1));
+        List<BookingDtoAfterCreate> result = bookingRepository.findBookingDtos(
+                BookingQuery.of(BookingRole.BOOKER, booker.getId(), UserBookingStates.WAITING, LocalDateTime.now()));
 
-        Booking resultBooking = result.get(0);
-
-        assertThat(resultBooking.getId(), equalTo(booking.getId()));
+        assertThat(result.size(), equalTo(1));
+        assertThat(result.get(0).getId(), equalTo(booking.getId()));
     }
 
     @Test
@@ -142,65 +156,153 @@ public class BookingRepositoryTest {
         badBooker.setName("bad");
         badBooker = userRepository.save(badBooker);
 
-        List<Booking> badRequestResult = bookingRepository
-                .findAllByBookerAndStatus(badBooker, booking.getStatus(), Pageable.unpaged());
+        List<BookingDtoAfterCreate> badRequestResult = bookingRepository.findBookingDtos(
+                BookingQuery.of(BookingRole.BOOKER, badBooker.getId(), UserBookingStates.WAITING, LocalDateTime.now()));
 
         assertThat(badRequestResult.size(), equalTo(0));
     }
 
     @Test
-    void shouldFindByBookerAndStartAfter() {
+    void shouldFindFutureBookings() {
         booking = bookingRepository.save(booking);
-        LocalDateTime goodStart = booking.getStart().minusHours(1);
 
-        List<Booking> result = bookingRepository
-                .findAllByBookerAndStartAfterOrderByStartDesc(
-                        booker,
-                        goodStart,
-                        Pageable.unpaged()
-                );
+        List<BookingDtoAfterCreate> result = bookingRepository.findBookingDtos(
+                BookingQuery.of(BookingRole.BOOKER, booker.getId(), UserBookingStates.FUTURE, booking.getStart().minusHours(1)));
+
         assertThat(result.get(0).getId(), equalTo(booking.getId()));
     }
 
     @Test
-    void shouldFindNothingByBookerAndStartAfterWhenBadStart() {
+    void shouldFindNothingInFutureWhenBookingStarted() {
         booking = bookingRepository.save(booking);
-        LocalDateTime badStart = booking.getStart().plusHours(1);
 
-        List<Booking> result = bookingRepository
-                .findAllByBookerAndStartAfterOrderByStartDesc(
-                        booker,
-                        badStart,
-                        Pageable.unpaged()
-                );
+        List<BookingDtoAfterCreate> result = bookingRepository.findBookingDtos(
+                BookingQuery.of(BookingRole.BOOKER, booker.getId(), UserBookingStates.FUTURE, booking.getStart().plusHours(1)));
+
         assertThat(result.size(), equalTo(0));
     }
 
     @Test
-    void shouldFindByBookerAndEndBefore() {
+    void shouldFindPastAndCurrentBookingsByOwner() {
         booking = bookingRepository.save(booking);
-        LocalDateTime goodEnd = booking.getEnd().plusYears(999);
 
-        List<Booking> result = bookingRepository
-                .findAllByBookerAndEndBeforeOrderByStartDesc(
-                        booker,
-                        goodEnd,
-                        Pageable.unpaged()
-                );
-        assertThat(result.get(0).getId(), equalTo(booking.getId()));
+        List<BookingDtoAfterCreate> past = bookingRepository.findBookingDtos(
+                BookingQuery.of(BookingRole.OWNER, owner.getId(), UserBookingStates.PAST, booking.getEnd().plusYears(999)));
+        List<BookingDtoAfterCreate> current = bookingRepository.findBookingDtos(
+                BookingQuery.of(BookingRole.OWNER, owner.getId(), UserBookingStates.CURRENT, booking.getStart().plusMinutes(1)));
+        List<BookingDtoAfterCreate> notPast = bookingRepository.findBookingDtos(
+                BookingQuery.of(BookingRole.OWNER, owner.getId(), UserBookingStates.PAST, booking.getEnd().minusYears(999)));
+
+        assertThat(past.get(0).getId(), equalTo(booking.getId()));
+        assertThat(current.get(0).getId(), equalTo(booking.getId()));
+        assertThat(notPast.size(), equalTo(0));
     }
 
     @Test
-    void shouldFindNothingByBookerAndEndBeforeWhenBadEnd() {
+    void shouldFindApprovedOverlap() {
+        booking.setStatus(Status.APPROVED);
         booking = bookingRepository.save(booking);
-        LocalDateTime badEnd = booking.getEnd().minusYears(999);
 
-        List<Booking> result = bookingRepository
-                .findAllByBookerAndEndBeforeOrderByStartDesc(
-                        booker,
-                        badEnd,
-                        Pageable.unpaged()
-                );
-        assertThat(result.size(), equalTo(0));
+        assertTrue(bookingRepository.existsApprovedOverlap(item.getId(),
+                booking.getStart().plusMinutes(30), booking.getEnd().plusHours(1)));
+        assertTrue(bookingRepository.existsApprovedOverlap(item.getId(),
+                booking.getStart().minusHours(1), booking.getEnd().plusHours(1)));
+    }
+
+    @Test
+    void shouldNotFindOverlapWithAdjacentOrNotApprovedBooking() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+        booking.setStart(start);
+        booking.setEnd(start.plusHours(1));
+        booking = bookingRepository.save(booking);
+
+        assertFalse(bookingRepository.existsApprovedOverlap(item.getId(), booking.getStart(), booking.getEnd()));
+
+        booking.setStatus(Status.APPROVED);
+        booking = bookingRepository.save(booking);
+
+        assertFalse(bookingRepository.existsApprovedOverlap(item.getId(),
+                booking.getEnd(), booking.getEnd().plusHours(1)));
+    }
+
+    @Test
+    void shouldReadBookingDtosWithSingleStatement() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+        booking.setStart(start);
+        booking.setEnd(start.plusHours(1));
+        bookingRepository.save(booking);
+        em.flush();
+        em.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+
+        List<BookingDtoAfterCreate> bookings = bookingRepository.findBookingDtos(
+                BookingQuery.of(BookingRole.OWNER, owner.getId(), UserBookingStates.ALL, start));
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+        assertThat(statistics.getEntityLoadCount(), equalTo(0L));
+        assertThat(bookings.size(), equalTo(1));
+        assertThat(bookings.get(0).getItem().getName(), equalTo(item.getName()));
+        assertThat(bookings.get(0).getBooker().getEmail(), equalTo(booker.getEmail()));
+    }
+
+    @Test
+    void shouldFindOnlyLastAndNextBookingPerItem() {
+        LocalDateTime moment = LocalDateTime.of(2030, 1, 1, 12, 0);
+        Item otherItem = new Item();
+
+        otherItem.setOwner(owner);
+        otherItem.setAvailable(true);
+        otherItem.setDescription("other description");
+        otherItem.setName("other item");
+        otherItem = itemRepository.save(otherItem);
+
+        Booking oldest = saveBooking(item, moment.minusDays(3), Status.APPROVED);
+        Booking last = saveBooking(item, moment.minusDays(1), Status.WAITING);
+        saveBooking(item, moment.minusHours(1), Status.REJECTED);
+        Booking next = saveBooking(item, moment.plusDays(1), Status.APPROVED);
+        Booking sameStartAsNext = saveBooking(item, moment.plusDays(1), Status.APPROVED);
+        saveBooking(item, moment.plusDays(2), Status.APPROVED);
+        Booking otherNext = saveBooking(otherItem, moment.plusHours(1), Status.WAITING);
+
+        List<ItemBookingNeighbour> neighbours = bookingRepository.findLastAndNextBookings(
+                List.of(item.getId(), otherItem.getId()), moment);
+
+        assertThat(neighbours.size(), equalTo(3));
+        for (ItemBookingNeighbour neighbour : neighbours) {
+            if (neighbour.getItemId().equals(otherItem.getId())) {
+                assertTrue(neighbour.isNext());
+                assertThat(neighbour.getId(), equalTo(otherNext.getId()));
+            } else if (neighbour.isNext()) {
+                assertThat(neighbour.getId(), equalTo(next.getId()));
+                assertThat(neighbour.getBookerId(), equalTo(booker.getId()));
+            } else {
+                assertThat(neighbour.getId(), equalTo(last.getId()));
+                assertThat(neighbour.getStart(), equalTo(last.getStart()));
+            }
+        }
+
+        List<Long> ids = neighbours.stream()
+                .map(ItemBookingNeighbour::getId)
+                .collect(Collectors.toList());
+
+        assertThat(ids, containsInAnyOrder(last.getId(), next.getId(), otherNext.getId()));
+        assertThat(ids, not(hasItem(oldest.getId())));
+        assertThat(ids, not(hasItem(sameStartAsNext.getId())));
+    }
+
+    private Booking saveBooking(Item bookedItem, LocalDateTime start, Status status) {
+        Booking newBooking = new Booking();
+
+        newBooking.setBooker(booker);
+        newBooking.setItem(bookedItem);
+        newBooking.setStatus(status);
+        newBooking.setStart(start);
+        newBooking.setEnd(start.plusHours(2));
+        return bookingRepository.save(newBooking);
     }
 }
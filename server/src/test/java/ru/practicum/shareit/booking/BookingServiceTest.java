@@ -1,6 +1,8 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -17,14 +19,19 @@ import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.UserBookingStates;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilities.models.Cursor;
+import ru.practicum.shareit.utilities.models.CursorPage;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.TypedQuery;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -38,6 +45,7 @@ public class BookingServiceTest {
     private final BookingRepository bookingRepository;
     private final BookingService bookingService;
     private final EntityManager em;
+    private final EntityManagerFactory entityManagerFactory;
     User itemOwner;
     Item item;
     User booker;
@@ -296,6 +304,28 @@ public class BookingServiceTest {
         assertThat(bookingDto.getItem().getId(), equalTo(item.getId()));
     }
 
+    @Test
+    void shouldReadBookingWithItemInSingleStatement() {
+        BookingDtoAfterCreate booking = bookingService.createBooking(
+                bookingDto(item.getId(), LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(2)),
+                booker.getId());
+
+        bookingService.getBookingById(booking.getId(), itemOwner.getId());
+        em.flush();
+        em.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+
+        BookingDtoAfterApproving bookingDto = bookingService.getBookingById(booking.getId(), itemOwner.getId());
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+        assertThat(statistics.getEntityFetchCount(), equalTo(0L));
+        assertThat(bookingDto.getItem().getName(), equalTo(item.getName()));
+        assertThat(bookingDto.getBooker().getId(), equalTo(booker.getId()));
+    }
+
     @Test
     void shouldNotReturnBookingWhenUnknownUser() {
         BookingDtoOnCreate bookingDtoOnCreate = new BookingDtoOnCreate();
@@ -574,4 +604,163 @@ public class BookingServiceTest {
             bookingService.getBookingById(booking.getId(), accessDeniedUserId);
         });
     }
+
+    @Test
+    void shouldCreateBookingsBatchWithPerEntryResults() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        BookingDtoOnCreate approvedDto = bookingDto(item.getId(), start, start.plusHours(2));
+        BookingDtoAfterCreate approved = bookingService.createBooking(approvedDto, booker.getId());
+
+        bookingService.confirmBooking(approved.getId(), itemOwner.getId(), true);
+
+        List<BookingDtoOnCreate> batch = List.of(
+                bookingDto(item.getId(), start.plusHours(2), start.plusHours(3)),
+                bookingDto(item.getId(), start.plusHours(1), start.plusHours(3)),
+                bookingDto(item.getId(), start.plusHours(2).plusMinutes(30), start.plusHours(4)),
+                bookingDto(-1L, start, start.plusHours(1)),
+                bookingDto(item.getId(), start.plusHours(5), start.plusHours(4)),
+                bookingDto(item.getId(), start.plusHours(3), start.plusHours(4)));
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(batch, booker.getId());
+
+        assertThat(results.size(), equalTo(batch.size()));
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).getIndex(), equalTo(i));
+        }
+        assertThat(results.get(0).getBooking().getStatus(), equalTo(Status.WAITING));
+        assertThat(results.get(1).getError(), notNullValue());
+        assertThat(results.get(2).getError(), notNullValue());
+        assertThat(results.get(3).getError(), notNullValue());
+        assertThat(results.get(4).getError(), notNullValue());
+        assertThat(results.get(5).getBooking().getItem().getId(), equalTo(item.getId()));
+
+        Booking saved = bookingRepository.findById(results.get(5).getBooking().getId()).orElseThrow();
+
+        assertThat(saved.getStart(), equalTo(start.plusHours(3)));
+        assertThat(saved.getBooker().getId(), equalTo(booker.getId()));
+    }
+
+    @Test
+    void shouldRejectBatchEntriesForOwnItem() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(
+                List.of(bookingDto(item.getId(), start, start.plusHours(1))), itemOwner.getId());
+
+        assertThat(results.get(0).getError(), notNullValue());
+        assertThrows(NotFoundException.class, () -> bookingService.createBookings(List.of(), -1L));
+    }
+
+    @Test
+    void shouldReportBatchEntriesWithoutItemId() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(
+                List.of(bookingDto(null, start, start.plusHours(1))), booker.getId());
+
+        assertThat(results.size(), equalTo(1));
+        assertThat(results.get(0).getError(), notNullValue());
+    }
+
+    @Test
+    void shouldConfirmBookingsWithPerIdResults() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        Long first = bookingService.createBooking(bookingDto(item.getId(), start, start.plusHours(2)), booker.getId()).getId();
+        Long overlapping = bookingService.createBooking(bookingDto(item.getId(), start.plusHours(1), start.plusHours(3)),
+                booker.getId()).getId();
+        Long rejected = bookingService.createBooking(bookingDto(item.getId(), start.plusHours(3), start.plusHours(4)),
+                booker.getId()).getId();
+        Item bookerItem = new Item();
+
+        bookerItem.setName("booker item");
+        bookerItem.setDescription("description");
+        bookerItem.setOwner(booker);
+        bookerItem.setAvailable(true);
+        bookerItem = itemRepository.save(bookerItem);
+
+        Long foreign = bookingService.createBooking(bookingDto(bookerItem.getId(), start, start.plusHours(1)),
+                itemOwner.getId()).getId();
+
+        List<BookingDecisionResultDto> results = bookingService.confirmBookings(List.of(
+                new BookingDecisionDto(first, true),
+                new BookingDecisionDto(overlapping, true),
+                new BookingDecisionDto(rejected, false),
+                new BookingDecisionDto(first, false),
+                new BookingDecisionDto(foreign, true),
+                new BookingDecisionDto(-1L, true)), itemOwner.getId());
+
+        assertThat(results.get(0).getStatus(), equalTo(Status.APPROVED));
+        assertThat(results.get(1).getError(), notNullValue());
+        assertThat(results.get(2).getStatus(), equalTo(Status.REJECTED));
+        assertThat(results.get(3).getError(), notNullValue());
+        assertThat(results.get(4).getError(), notNullValue());
+        assertThat(results.get(5).getBookingId(), equalTo(-1L));
+        assertThat(results.get(5).getError(), notNullValue());
+
+        TypedQuery<Booking> query = em.createQuery("select b from Booking b where b.id = :id", Booking.class);
+
+        assertThat(query.setParameter("id", first).getSingleResult().getStatus(), equalTo(Status.APPROVED));
+        assertThat(query.setParameter("id", overlapping).getSingleResult().getStatus(), equalTo(Status.WAITING));
+        assertThat(query.setParameter("id", rejected).getSingleResult().getStatus(), equalTo(Status.REJECTED));
+        assertThat(query.setParameter("id", foreign).getSingleResult().getStatus(), equalTo(Status.WAITING));
+        assertThrows(ItemNotAvailableException.class, () -> bookingService.confirmBooking(overlapping, itemOwner.getId(), true));
+    }
+
+    @Test
+    void shouldReportDecisionsWithoutBookingId() {
+        List<BookingDecisionResultDto> results = bookingService.confirmBookings(
+                List.of(new BookingDecisionDto(null, true)), itemOwner.getId());
+
+        assertThat(results.size(), equalTo(1));
+        assertThat(results.get(0).getError(), notNullValue());
+    }
+
+    @Test
+    void shouldPageBookingsByCursorWithoutGapsAndDuplicates() {
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 12, 0);
+        List<Long> created = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            /*
+            у двух броней одинаковое начало: порядок между ними задает id
+             */
+            LocalDateTime bookingStart = start.plusDays(Math.min(i, 3));
+
+            created.add(bookingService.createBooking(bookingDto(item.getId(), bookingStart, bookingStart.plusHours(1)),
+                    booker.getId()).getId());
+        }
+        List<Long> expected = List.of(created.get(4), created.get(3), created.get(2), created.get(1), created.get(0));
+
+        for (BookingRole role : BookingRole.values()) {
+            List<Long> paged = new ArrayList<>();
+            String cursor = "";
+
+            do {
+                CursorPage<BookingDtoAfterCreate> page = role == BookingRole.BOOKER
+                        ? bookingService.getUserBookingsPage(booker.getId(), UserBookingStates.WAITING, cursor, 2)
+                        : bookingService.getBookingsByOwnerPage(itemOwner.getId(), UserBookingStates.ALL, cursor, 2);
+
+                page.getContent().forEach(booking -> paged.add(booking.getId()));
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            assertThat(paged, equalTo(expected));
+        }
+    }
+
+    @Test
+    void shouldThrowBadCursorWhenCursorIsMalformed() {
+        assertThrows(BadCursorException.class,
+                () -> bookingService.getUserBookingsPage(booker.getId(), UserBookingStates.ALL, "not a cursor", 2));
+        assertThrows(BadCursorException.class,
+                () -> bookingService.getUserBookingsPage(booker.getId(), UserBookingStates.ALL, Cursor.encode("x", 1), 2));
+    }
+
+    private static BookingDtoOnCreate bookingDto(Long itemId, LocalDateTime start, LocalDateTime end) {
+        BookingDtoOnCreate bookingDtoOnCreate = new BookingDtoOnCreate();
+
+        bookingDtoOnCreate.setItemId(itemId);
+        bookingDtoOnCreate.setStart(start);
+        bookingDtoOnCreate.setEnd(end);
+        return bookingDtoOnCreate;
+    }
 }
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.booking;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.practicum.shareit.booking.service.BookingTimeline;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение проверки пересечения броней: линейный проход по всем подтвержденным броням вещи
+ * (как было в BookingServiceImpl) и поиск в BookingTimeline.
+ * Запуск: main из IDE или java -cp target/test-classes:... org.openjdk.jmh.Main BookingTimelineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingTimelineBenchmark {
+    @Param({"100", "1000", "10000"})
+    private int bookingsCount;
+    private final List<LocalDateTime[]> bookings = new ArrayList<>();
+    private final BookingTimeline timeline = new BookingTimeline();
+    private LocalDateTime[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+        Random random = new Random(42);
+
+        for (int i = 0; i < bookingsCount; i++) {
+            LocalDateTime start = base.plusHours(i * 3L);
+            LocalDateTime end = start.plusHours(1);
+
+            bookings.add(new LocalDateTime[]{start, end});
+            timeline.add(start, end);
+        }
+        queries = new LocalDateTime[1024][];
+        for (int i = 0; i < queries.length; i++) {
+            LocalDateTime start = base.plusMinutes(random.nextInt(bookingsCount * 180));
+
+            queries[i] = new LocalDateTime[]{start, start.plusMinutes(30)};
+        }
+    }
+
+    @Benchmark
+    public boolean linearScan() {
+        LocalDateTime[] query = nextQuery();
+
+        for (LocalDateTime[] booking : bookings) {
+            if (query[0].isBefore(booking[1]) && query[1].isAfter(booking[0])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean timeline() {
+        LocalDateTime[] query = nextQuery();
+
+        return timeline.overlaps(query[0], query[1]);
+    }
+
+    private LocalDateTime[] nextQuery() {
+        next = (next + 1) & (queries.length - 1);
+        return queries[next];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BookingTimelineBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
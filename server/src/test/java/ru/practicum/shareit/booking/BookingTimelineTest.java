@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.service.BookingTimeline;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Booking timeline")
+public class BookingTimelineTest {
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 12, 0);
+    private BookingTimeline timeline;
+
+    @BeforeEach
+    void init() {
+        timeline = new BookingTimeline();
+        timeline.add(base, base.plusHours(2));
+        timeline.add(base.plusHours(5), base.plusHours(6));
+    }
+
+    @Test
+    void shouldFindOverlapWhenPeriodStartsInsideBooking() {
+        assertTrue(timeline.overlaps(base.plusHours(1), base.plusHours(3)));
+    }
+
+    @Test
+    void shouldFindOverlapWhenPeriodEndsInsideBooking() {
+        assertTrue(timeline.overlaps(base.minusHours(1), base.plusHours(1)));
+    }
+
+    @Test
+    void shouldFindOverlapWhenPeriodContainsBooking() {
+        assertTrue(timeline.overlaps(base.plusHours(4), base.plusHours(7)));
+        assertTrue(timeline.overlaps(base, base.plusHours(2)));
+    }
+
+    @Test
+    void shouldNotFindOverlapForAdjacentAndFreePeriods() {
+        assertFalse(timeline.overlaps(base.minusHours(1), base));
+        assertFalse(timeline.overlaps(base.plusHours(2), base.plusHours(5)));
+        assertFalse(timeline.overlaps(base.plusHours(6), base.plusHours(8)));
+    }
+
+    @Test
+    void shouldMergeOverlappingIntervals() {
+        timeline.add(base.plusHours(1), base.plusHours(5).plusMinutes(30));
+
+        assertThat(timeline.size(), equalTo(1));
+        assertTrue(timeline.overlaps(base.plusHours(3), base.plusHours(4)));
+        assertFalse(timeline.overlaps(base.plusHours(6), base.plusHours(7)));
+    }
+
+    @Test
+    void shouldIgnoreEmptyIntervals() {
+        timeline.add(base.plusHours(10), base.plusHours(9));
+
+        assertThat(timeline.size(), equalTo(2));
+        assertFalse(timeline.overlaps(base.plusHours(1), base.plusHours(1)));
+    }
+}
@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.InMemoryItemSearch;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "shareit.items.search.engine=memory")
+@DisplayName("In-memory item search")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class InMemoryItemSearchTest {
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ItemService itemService;
+    private final InMemoryItemSearch itemSearch;
+    private User owner;
+
+    @BeforeEach
+    void init() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+
+        owner = new User();
+
+        owner.setName("owner");
+        owner.setEmail("owner@owner.ru");
+        owner = userRepository.save(owner);
+    }
+
+    @AfterEach
+    void afterEach() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        itemSearch.rebuild();
+    }
+
+    @Test
+    void shouldFindItemsSavedBeforeRebuild() {
+        Item item = new Item();
+
+        item.setName("Дрель");
+        item.setDescription("Простая дрель");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item = itemRepository.save(item);
+        itemSearch.rebuild();
+
+        assertThat(ids(itemService.findItemsBy("дрел", 0, 10)), equalTo(List.of(item.getId())));
+    }
+
+    @Test
+    void shouldFollowCreatedAndUpdatedItems() {
+        ItemDto drill = itemService.createItem(itemDto("Дрель", "Аккумуляторная дрель", true), owner.getId());
+        ItemDto screwdriver = itemService.createItem(itemDto("Отвертка", "Аккумуляторная отвертка", true), owner.getId());
+
+        itemService.createItem(itemDto("Дрель", "Сломана", false), owner.getId());
+
+        assertThat(ids(itemService.findItemsBy("аккумуляторная", 0, 10)), equalTo(List.of(drill.getId(), screwdriver.getId())));
+        assertThat(ids(itemService.findItemsBy("аккумуляторная", 1, 1)), equalTo(List.of(screwdriver.getId())));
+        assertThat(ids(itemService.findItemsBy("дрель", 0, 10)), equalTo(List.of(drill.getId())));
+
+        itemService.updateItem(drill.getId(), owner.getId(), itemDto(null, null, false));
+        itemService.updateItem(screwdriver.getId(), owner.getId(), itemDto("Шуруповерт", null, null));
+
+        assertThat(ids(itemService.findItemsBy("аккумуляторная", 0, 10)), equalTo(List.of(screwdriver.getId())));
+        assertThat(ids(itemService.findItemsBy("шуруп", 0, 10)), equalTo(List.of(screwdriver.getId())));
+    }
+
+    private static ItemDto itemDto(String name, String description, Boolean available) {
+        ItemDto itemDto = new ItemDto();
+
+        itemDto.setName(name);
+        itemDto.setDescription(description);
+        itemDto.setAvailable(available);
+        return itemDto;
+    }
+
+    private static List<Long> ids(List<ItemDto> items) {
+        return items.stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.search.InvertedIndex;
+import ru.practicum.shareit.utilities.SearchTerms;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@DisplayName("Inverted index")
+public class InvertedIndexTest {
+    private InvertedIndex index;
+
+    @BeforeEach
+    void init() {
+        index = new InvertedIndex();
+        index.rebuild(Map.of(
+                3L, SearchTerms.of("Дрель ударная"),
+                1L, SearchTerms.of("Дрель аккумуляторная"),
+                2L, SearchTerms.of("Отвертка аккумуляторная")));
+    }
+
+    @Test
+    void shouldFindDocumentsByWordPrefixInIdOrder() {
+        assertThat(index.search(SearchTerms.of("дрел")), equalTo(new long[]{1L, 3L}));
+        assertThat(index.search(SearchTerms.of("АККУМ")), equalTo(new long[]{1L, 2L}));
+    }
+
+    @Test
+    void shouldRequireEveryWord() {
+        assertThat(index.search(SearchTerms.of("дрель аккум")), equalTo(new long[]{1L}));
+        assertThat(index.search(SearchTerms.of("дрель пила")), equalTo(new long[0]));
+    }
+
+    @Test
+    void shouldReplaceDocumentWords() {
+        List<String> previous = index.put(1L, SearchTerms.of("Пила"));
+
+        assertThat(previous, equalTo(List.of("дрель", "аккумуляторная")));
+        assertThat(index.search(SearchTerms.of("дрель")), equalTo(new long[]{3L}));
+        assertThat(index.search(SearchTerms.of("пила")), equalTo(new long[]{1L}));
+    }
+
+    @Test
+    void shouldRemoveDocument() {
+        index.remove(3L);
+        index.remove(42L);
+
+        assertThat(index.search(SearchTerms.of("ударная")), equalTo(new long[0]));
+        assertThat(index.size(), equalTo(2));
+    }
+
+    @Test
+    void shouldKeepIdsSortedWhenAddedOutOfOrder() {
+        index.put(0L, SearchTerms.of("дрель"));
+        index.put(2L, SearchTerms.of("дрель"));
+
+        assertThat(index.search(SearchTerms.of("дрель")), equalTo(new long[]{0L, 1L, 2L, 3L}));
+    }
+}
@@ -14,9 +14,13 @@ import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.item.controller.ItemController;
 import ru.practicum.shareit.item.model.ItemDto;
 import ru.practicum.shareit.item.model.ItemInfoDto;
+import ru.practicum.shareit.item.model.ItemSearchPageDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.utilities.models.Cursor;
+import ru.practicum.shareit.utilities.models.CursorPage;
 
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
@@ -129,4 +133,72 @@ public class ItemControllerTest {
                 .andExpect(content().json(mapper.writeValueAsString(List.of(itemDto))))
                 .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class));
     }
+
+    @Test
+    void shouldFindSimilarItemsWhenFuzzy() throws Exception {
+        when(itemService.findSimilarItems("drel", 0, 20))
+                .thenReturn(List.of(itemDto));
+
+        mockMvc.perform(
+                        get("/items/search")
+                                .header(xSharerUserId, 1L)
+                                .param("text", "drel")
+                                .param("fuzzy", "true")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class));
+    }
+
+    @Test
+    void shouldReturnNextCursorWhenSearchingByCursor() throws Exception {
+        when(itemService.findItemsPage("дрель", false, "", 1))
+                .thenReturn(new CursorPage<>(List.of(itemDto), "next"));
+
+        mockMvc.perform(
+                        get("/items/search")
+                                .param("text", "дрель")
+                                .param("size", "1")
+                                .param("cursor", "")
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string(Cursor.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class));
+    }
+
+    @Test
+    void shouldSuggestNames() throws Exception {
+        when(itemService.suggestNames("дре", 5))
+                .thenReturn(List.of("Дрель"));
+
+        mockMvc.perform(
+                        get("/items/suggest")
+                                .param("prefix", "дре")
+                                .param("size", "5")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0]", is("Дрель")));
+    }
+
+    @Test
+    void shouldFindItemsFaceted() throws Exception {
+        ItemSearchPageDto page = new ItemSearchPageDto(List.of(itemDto), 1,
+                new ItemSearchPageDto.Facets(Map.of(1L, 1L), 0, 1, 1, 0));
+
+        when(itemService.findItemsFaceted("", 1L, null, true, 0, 20))
+                .thenReturn(page);
+
+        mockMvc.perform(
+                        get("/items/search/faceted")
+                                .param("ownerId", "1")
+                                .param("available", "true")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(1)))
+                .andExpect(jsonPath("$.items[0].id", is(itemDto.getId()), Long.class))
+                .andExpect(jsonPath("$.facets.owners.1", is(1)))
+                .andExpect(jsonPath("$.facets.withoutRequest", is(1)));
+    }
 }
@@ -54,7 +54,7 @@ public class ItemRepositoryTest {
 
     @Test
     void shouldFindItemByOwnerId() {
-        List<Item> findResult = itemRepository.findByOwnerOrderByIdAsc(owner);
+        List<Item> findResult = itemRepository.findAllWithCommentsByOwnerId(owner.getId());
 
         assertThat(findResult.size(), equalTo(1));
 
@@ -68,9 +68,8 @@ public class ItemRepositoryTest {
 
     @Test
     void shouldFindTestItemByDescription() {
-        String text = "est";
-        List<Item> findResult = itemRepository
-                .findByAvailableTrueAndDescriptionContainingIgnoreCase(text, Pageable.unpaged());
+        String text = "descr";
+        List<Item> findResult = itemRepository.search(text, Pageable.unpaged());
 
         assertThat(findResult.size(), equalTo(1));
 
@@ -82,11 +81,17 @@ public class ItemRepositoryTest {
         assertThat(resultItem.getAvailable(), equalTo(item.getAvailable()));
     }
 
+    @Test
+    void shouldFindNothingByWordMiddle() {
+        List<Item> findResult = itemRepository.search("est", Pageable.unpaged());
+
+        assertThat(findResult.size(), equalTo(0));
+    }
+
     @Test
     void shouldFindNothingByDescription() {
         String text = "bad description";
-        List<Item> findResult = itemRepository
-                .findByAvailableTrueAndDescriptionContainingIgnoreCase(text, Pageable.unpaged());
+        List<Item> findResult = itemRepository.search(text, Pageable.unpaged());
 
         assertThat(findResult.size(), equalTo(0));
     }
@@ -97,10 +102,31 @@ public class ItemRepositoryTest {
         item = itemRepository.save(item);
 
         String text = item.getDescription();
-        List<Item> findResult = itemRepository
-                .findByAvailableTrueAndDescriptionContainingIgnoreCase(text, Pageable.unpaged());
+        List<Item> findResult = itemRepository.search(text, Pageable.unpaged());
+
+        assertThat(findResult.size(), equalTo(0));
+
+    }
+
+    @Test
+    void shouldFindItemByNameAndDescriptionWords() {
+        List<Item> findResult = itemRepository.search("Item, DESCRIPTION", Pageable.unpaged());
+
+        assertThat(findResult.size(), equalTo(1));
+        assertThat(findResult.get(0).getId(), equalTo(item.getId()));
+    }
+
+    @Test
+    void shouldFindNothingWhenOneWordIsMissing() {
+        List<Item> findResult = itemRepository.search("item drill", Pageable.unpaged());
 
         assertThat(findResult.size(), equalTo(0));
+    }
 
+    @Test
+    void shouldFindNothingWithoutWords() {
+        List<Item> findResult = itemRepository.search(" %_ ", Pageable.unpaged());
+
+        assertThat(findResult.size(), equalTo(0));
     }
 }
@@ -0,0 +1,114 @@
+package ru.practicum.shareit.item;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.practicum.shareit.item.search.InvertedIndex;
+import ru.practicum.shareit.utilities.SearchTerms;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение поиска вещей: прежний запрос LOWER(description) LIKE '%text%' к H2 в памяти
+ * и поиск по InvertedIndex. Оба варианта возвращают первую страницу (20) id.
+ * Запросы - два целых слова (word) или два коротких префикса (prefix). В описании каждой вещи есть
+ * уникальное слово модели, поэтому префикс "м" покрывает столько слов индекса, сколько вещей.
+ * Запуск: main из IDE или java -cp target/test-classes:... org.openjdk.jmh.Main ItemSearchBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemSearchBenchmark {
+    private static final String[] WORDS = {"дрель", "пила", "отвертка", "молоток", "лестница", "палатка",
+            "велосипед", "самокат", "проектор", "колонка", "фотоаппарат", "штатив", "гитара", "удочка", "мангал",
+            "аккумуляторная", "ударная", "складная", "детская", "большая", "новая", "электрическая"};
+    private static final int PAGE_SIZE = 20;
+    @Param({"1000", "10000", "100000"})
+    private int itemsCount;
+    @Param({"word", "prefix"})
+    private String queryType;
+    private final InvertedIndex index = new InvertedIndex();
+    private Connection connection;
+    private PreparedStatement likeQuery;
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        Random random = new Random(42);
+        Map<Long, List<String>> contents = new HashMap<>();
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:search-benchmark;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS items");
+            statement.execute("CREATE TABLE items (id BIGINT PRIMARY KEY, description VARCHAR NOT NULL, " +
+                    "available BOOLEAN NOT NULL)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO items VALUES (?, ?, TRUE)")) {
+            for (long id = 1; id <= itemsCount; id++) {
+                String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                        + " " + WORDS[random.nextInt(WORDS.length)] + " модель" + id;
+
+                insert.setLong(1, id);
+                insert.setString(2, description);
+                insert.addBatch();
+                contents.put(id, SearchTerms.of(description));
+            }
+            insert.executeBatch();
+        }
+        index.rebuild(contents);
+        likeQuery = connection.prepareStatement("SELECT id FROM items WHERE available = TRUE " +
+                "AND LOWER(description) LIKE ? ORDER BY id LIMIT " + PAGE_SIZE);
+        queries = new String[64];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = "word".equals(queryType)
+                    ? WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    : "м " + WORDS[random.nextInt(WORDS.length)].substring(0, 2);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public long[] like() throws SQLException {
+        String query = nextQuery();
+        long[] ids = new long[PAGE_SIZE];
+        int found = 0;
+
+        likeQuery.setString(1, "%" + query.split(" ")[0] + "%" + query.split(" ")[1] + "%");
+        try (ResultSet resultSet = likeQuery.executeQuery()) {
+            while (resultSet.next()) {
+                ids[found++] = resultSet.getLong(1);
+            }
+        }
+        return Arrays.copyOf(ids, found);
+    }
+
+    @Benchmark
+    public long[] invertedIndex() {
+        long[] ids = index.search(SearchTerms.of(nextQuery()));
+
+        return Arrays.copyOf(ids, Math.min(ids.length, PAGE_SIZE));
+    }
+
+    private String nextQuery() {
+        next = (next + 1) & (queries.length - 1);
+        return queries[next];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ItemSearchBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,124 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.notNullValue;
+
+/**
+ * Тесты работают без общей транзакции: запись в кэш второго уровня видна только сессиям, начатым после нее
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DisplayName("Item second-level cache")
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class ItemSecondLevelCacheTest {
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemService itemService;
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    User owner;
+    User booker;
+
+    @BeforeEach
+    void init() {
+        owner = new User();
+
+        owner.setName("owner");
+        owner.setEmail("cached-owner@owner.ru");
+        owner = userRepository.save(owner);
+
+        booker = new User();
+
+        booker.setName("booker");
+        booker.setEmail("cached-booker@booker.ru");
+        booker = userRepository.save(booker);
+    }
+
+    @AfterEach
+    void afterEach() {
+        transactionTemplate.executeWithoutResult(status -> em.createQuery("DELETE FROM Comment").executeUpdate());
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void shouldReadItemFromCacheAndSeeNewComment() {
+        ItemDto itemDto = new ItemDto();
+
+        itemDto.setName("Струбцина");
+        itemDto.setDescription("Струбцина угловая");
+        itemDto.setAvailable(true);
+
+        long itemId = itemService.createItem(itemDto, owner.getId()).getId();
+        CacheRegionStatistics items = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics()
+                .getDomainDataRegionStatistics(Item.class.getName());
+        /*
+        вещи с IDENTITY-ключом не попадают в кэш при вставке: первое чтение кладет вещь в кэш, второе - читает из него
+         */
+        assertThat(comments(itemId), equalTo(List.of()));
+
+        long hits = items.getHitCount();
+
+        assertThat(comments(itemId), equalTo(List.of()));
+        assertThat(items.getHitCount(), greaterThan(hits));
+
+        Booking booking = new Booking();
+
+        booking.setItem(itemRepository.findById(itemId).orElseThrow());
+        booking.setBooker(booker);
+        booking.setStart(LocalDateTime.now().minusHours(2));
+        booking.setEnd(LocalDateTime.now().minusHours(1));
+        booking.setStatus(Status.APPROVED);
+        bookingRepository.save(booking);
+
+        CommentDto commentDto = new CommentDto();
+
+        commentDto.setText("nice item");
+        itemService.addComment(booker.getId(), itemId, commentDto);
+
+        assertThat(comments(itemId), equalTo(List.of("nice item")));
+    }
+
+    @Test
+    void shouldPublishCacheStatisticsAsMeters() {
+        assertThat(meterRegistry.find("hibernate.second.level.cache.requests").meter(), notNullValue());
+    }
+
+    private List<String> comments(long itemId) {
+        return transactionTemplate.execute(status -> em.find(Item.class, itemId).getComments().stream()
+                .map(Comment::getText)
+                .collect(Collectors.toList()));
+    }
+}
@@ -1,33 +1,55 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDtoAfterCreate;
+import ru.practicum.shareit.booking.model.BookingDtoOnCreate;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemBookingPointers;
+import ru.practicum.shareit.exception.model.BadCursorException;
 import ru.practicum.shareit.exception.model.NotFoundException;
 import ru.practicum.shareit.exception.model.UserDidNotBookingItemException;
 import ru.practicum.shareit.exception.model.UserIsNotItemOwnerException;
 import ru.practicum.shareit.item.model.*;
+import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.FacetedItemSearch;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSuggestions;
+import ru.practicum.shareit.item.search.SimilarItemSearch;
 import ru.practicum.shareit.item.service.ItemDtoMapper;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilities.models.CursorPage;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.TypedQuery;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -40,7 +62,15 @@ public class ItemServiceTest {
     private final ItemService itemService;
     private final BookingRepository bookingRepository;
     private final EntityManager em;
+    private final EntityManagerFactory entityManagerFactory;
     private final ItemRepository itemRepository;
+    private final CommentRepository commentRepository;
+    private final BookingService bookingService;
+    private final ItemBookingPointers itemBookingPointers;
+    private final FacetedItemSearch facetedItemSearch;
+    private final SimilarItemSearch similarItemSearch;
+    private final ItemSuggestions itemSuggestions;
+    private final MeterRegistry meterRegistry;
     User itemOwner;
     Item item;
     @Autowired
@@ -70,8 +100,12 @@ public class ItemServiceTest {
     @AfterEach
     void afterEach() {
         bookingRepository.deleteAll();
+        commentRepository.deleteAllInBatch();
         itemRepository.deleteAll();
         userRepository.deleteAll();
+        similarItemSearch.rebuild();
+        itemSuggestions.rebuild();
+        facetedItemSearch.rebuild();
     }
 
     @Test
@@ -136,12 +170,16 @@ public class ItemServiceTest {
         booker.setEmail("booker@booker.ru");
 
         booker = userRepository.save(booker);
+        /*
+        брони читаются из БД, где время хранится с точностью до микросекунд
+         */
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
 
         Booking nextBooking = new Booking();
 
         nextBooking.setItem(mapper.fromDto(itemDto));
-        nextBooking.setStart(LocalDateTime.now().plusHours(1));
-        nextBooking.setEnd(LocalDateTime.now().plusHours(2));
+        nextBooking.setStart(now.plusHours(1));
+        nextBooking.setEnd(now.plusHours(2));
         nextBooking.setStatus(Status.APPROVED);
         nextBooking.setBooker(booker);
         bookingRepository.save(nextBooking);
@@ -149,11 +187,15 @@ public class ItemServiceTest {
         Booking lastBooking = new Booking();
 
         lastBooking.setItem(mapper.fromDto(itemDto));
-        lastBooking.setStart(LocalDateTime.now().minusHours(2));
-        lastBooking.setEnd(LocalDateTime.now().minusHours(1));
+        lastBooking.setStart(now.minusHours(2));
+        lastBooking.setEnd(now.minusHours(1));
         lastBooking.setStatus(Status.APPROVED);
         lastBooking.setBooker(booker);
         bookingRepository.save(lastBooking);
+        /*
+        брони сохранены в обход сервиса, поэтому указатели вещи пересчитываются явно
+         */
+        itemBookingPointers.refresh(List.of(itemDto.getId()));
 
         ItemInfoDto itemDtoWithBooking = itemService.getItemDtoById(itemDto.getId(), itemOwner.getId());
 
@@ -165,6 +207,123 @@ public class ItemServiceTest {
         assertThat(itemDtoWithBooking.getNextBooking().getEnd(), equalTo(nextBooking.getEnd()));
     }
 
+    @Test
+    void shouldKeepBookingPointersOnBookingChanges() {
+        ItemDto itemDto = itemService.createItem(mapper.toDto(item), itemOwner.getId());
+        User booker = new User();
+
+        booker.setName("booker");
+        booker.setEmail("booker@booker.ru");
+        booker = userRepository.save(booker);
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        BookingDtoOnCreate bookingDto = new BookingDtoOnCreate();
+
+        bookingDto.setItemId(itemDto.getId());
+        bookingDto.setStart(now.plusHours(1));
+        bookingDto.setEnd(now.plusHours(2));
+
+        BookingDtoAfterCreate rejected = bookingService.createBooking(bookingDto, booker.getId());
+
+        assertThat(itemService.getItemDtoById(itemDto.getId(), itemOwner.getId()).getNextBooking().getId(),
+                equalTo(rejected.getId()));
+
+        bookingService.confirmBooking(rejected.getId(), itemOwner.getId(), false);
+
+        assertThat(itemService.getItemDtoById(itemDto.getId(), itemOwner.getId()).getNextBooking(), nullValue());
+
+        BookingDtoAfterCreate approved = bookingService.createBooking(bookingDto, booker.getId());
+
+        bookingService.confirmBooking(approved.getId(), itemOwner.getId(), true);
+        /*
+        следующая бронь началась: указатели устарели и сдвигаются плановой задачей
+         */
+        em.createNativeQuery("UPDATE bookings SET start_booking = :start WHERE id = :id")
+                .setParameter("start", now.minusMinutes(1))
+                .setParameter("id", approved.getId())
+                .executeUpdate();
+        em.createNativeQuery("UPDATE item_booking_pointers SET valid_until = :start WHERE item_id = :id")
+                .setParameter("start", now.minusMinutes(1))
+                .setParameter("id", itemDto.getId())
+                .executeUpdate();
+        itemBookingPointers.rollForward();
+
+        Object[] pointers = (Object[]) em.createNativeQuery("SELECT last_booking_id, next_booking_id " +
+                        "FROM item_booking_pointers WHERE item_id = :id")
+                .setParameter("id", itemDto.getId())
+                .getSingleResult();
+
+        assertThat(((Number) pointers[0]).longValue(), equalTo(approved.getId()));
+        assertThat(pointers[1], nullValue());
+
+        ItemInfoDto itemInfoDto = itemService.getItemDtoById(itemDto.getId(), itemOwner.getId());
+
+        assertThat(itemInfoDto.getLastBooking().getId(), equalTo(approved.getId()));
+        assertThat(itemInfoDto.getNextBooking(), nullValue());
+    }
+
+    @Test
+    void shouldComputeMissingBookingPointersOnReadWithoutSavingThem() {
+        ItemDto itemDto = itemService.createItem(mapper.toDto(item), itemOwner.getId());
+        User booker = new User();
+
+        booker.setName("booker");
+        booker.setEmail("booker@booker.ru");
+        booker = userRepository.save(booker);
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        BookingDtoOnCreate bookingDto = new BookingDtoOnCreate();
+
+        bookingDto.setItemId(itemDto.getId());
+        bookingDto.setStart(now.plusHours(1));
+        bookingDto.setEnd(now.plusHours(2));
+
+        BookingDtoAfterCreate next = bookingService.createBooking(bookingDto, booker.getId());
+
+        em.createNativeQuery("DELETE FROM item_booking_pointers WHERE item_id = :id")
+                .setParameter("id", itemDto.getId())
+                .executeUpdate();
+
+        assertThat(itemService.getItemDtoById(itemDto.getId(), itemOwner.getId()).getNextBooking().getId(),
+                equalTo(next.getId()));
+        assertThat(((Number) em.createNativeQuery("SELECT COUNT(*) FROM item_booking_pointers WHERE item_id = :id")
+                .setParameter("id", itemDto.getId())
+                .getSingleResult()).longValue(), equalTo(0L));
+    }
+
+    @Test
+    void shouldBackfillBookingPointersAndReadThemWithoutBookingScan() {
+        /*
+        вещь и ее брони сохранены в обход сервиса, как до появления указателей: строки указателей нет
+         */
+        Item oldItem = itemRepository.save(item);
+        User booker = new User();
+
+        booker.setName("booker");
+        booker.setEmail("booker@booker.ru");
+        booker = userRepository.save(booker);
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Booking lastBooking = new Booking();
+
+        lastBooking.setItem(oldItem);
+        lastBooking.setStart(now.minusDays(2));
+        lastBooking.setEnd(now.minusDays(1));
+        lastBooking.setStatus(Status.APPROVED);
+        lastBooking.setBooker(booker);
+        bookingRepository.save(lastBooking);
+
+        assertThat(itemBookingPointers.backfill(), equalTo(1));
+
+        Statistics statistics = startCountingStatements();
+        ItemInfoDto itemInfoDto = itemService.getItemDtoById(oldItem.getId(), itemOwner.getId());
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+        assertThat(itemInfoDto.getLastBooking().getId(), equalTo(lastBooking.getId()));
+        assertThat(itemInfoDto.getNextBooking(), nullValue());
+        assertThat(itemBookingPointers.backfill(), equalTo(0));
+    }
+
     @Test
     void shouldReturnAllItems() {
         ItemDto itemDto = itemService.createItem(mapper.toDto(item), itemOwner.getId());
@@ -217,6 +376,57 @@ public class ItemServiceTest {
         assertThat(itemInfoDto.getId(), equalTo(itemDto.getId()));
     }
 
+    @Test
+    void shouldReadItemWithCommentsWithoutLazyLoads() {
+        ItemDto itemDto = itemService.createItem(mapper.toDto(item), itemOwner.getId());
+
+        addComment(itemDto.getId(), "first");
+        addComment(itemDto.getId(), "second");
+
+        Statistics statistics = startCountingStatements();
+        ItemInfoDto itemInfoDto = itemService.getItemDtoById(itemDto.getId(), itemOwner.getId());
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+        assertThat(statistics.getEntityFetchCount(), equalTo(0L));
+        assertThat(statistics.getCollectionFetchCount(), equalTo(0L));
+        assertThat(itemInfoDto.getComments(), hasSize(2));
+    }
+
+    @Test
+    void shouldReadOwnerItemsWithCommentsWithoutStatementPerItem() {
+        for (int i = 0; i < 3; i++) {
+            ItemDto itemDto = itemService.createItem(mapper.toDto(item), itemOwner.getId());
+
+            addComment(itemDto.getId(), "comment " + i);
+        }
+
+        Statistics statistics = startCountingStatements();
+        List<ItemInfoDto> items = itemService.getItemsByOwnerId(itemOwner.getId());
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+        assertThat(statistics.getEntityFetchCount(), equalTo(0L));
+        assertThat(statistics.getCollectionFetchCount(), equalTo(0L));
+        assertThat(items, hasSize(3));
+        assertTrue(items.stream().allMatch(itemInfoDto -> itemInfoDto.getComments().size() == 1));
+    }
+
+    @Test
+    void shouldSearchItemsWithoutLoadingOwnersAndComments() {
+        for (int i = 0; i < 3; i++) {
+            ItemDto itemDto = itemService.createItem(mapper.toDto(item), itemOwner.getId());
+
+            addComment(itemDto.getId(), "comment " + i);
+        }
+
+        Statistics statistics = startCountingStatements();
+        List<ItemDto> items = itemService.findItemsBy("item", 0, 10);
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+        assertThat(statistics.getEntityFetchCount(), equalTo(0L));
+        assertThat(statistics.getCollectionFetchCount(), equalTo(0L));
+        assertThat(items, hasSize(3));
+    }
+
     @Test
     void shouldReturnEmptyListWhenSearchByBlankString() {
         itemService.createItem(mapper.toDto(item), itemOwner.getId());
@@ -241,6 +451,175 @@ public class ItemServiceTest {
         assertThat(items.get(0).getId(), equalTo(itemDto.getId()));
     }
 
+    /*
+    in-memory индексы меняются после коммита, поэтому тест выполняется без общей транзакции
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldFindSimilarItemsWithTyposAndTransliteration() {
+        item.setName("Дрель");
+        item.setDescription("Ударная дрель");
+
+        ItemDto drill = itemService.createItem(mapper.toDto(item), itemOwner.getId());
+
+        item.setName("Дрель-шуруповерт");
+        item.setDescription("Аккумуляторная");
+
+        ItemDto screwdriver = itemService.createItem(mapper.toDto(item), itemOwner.getId());
+
+        item.setName("Пила");
+        item.setDescription("Ручная пила");
+        itemService.createItem(mapper.toDto(item), itemOwner.getId());
+
+        assertThat(itemService.findSimilarItems("drel", 0, 20).stream().map(ItemDto::getId).collect(Collectors.toList()),
+                equalTo(List.of(drill.getId(), screwdriver.getId())));
+        assertThat(itemService.findSimilarItems("дрельь", 0, 1).get(0).getId(), equalTo(drill.getId()));
+        assertTrue(itemService.findSimilarItems("молоток", 0, 20).isEmpty());
+    }
+
+    /*
+    in-memory индексы меняются после коммита, поэтому тест выполняется без общей транзакции
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldPageSearchResultsByCursorWithoutGapsAndDuplicates() {
+        List<Long> created = new ArrayList<>();
+
+        for (int i = 1; i <= 5; i++) {
+            item.setName("Стамеска " + i);
+            item.setDescription("Стамеска по дереву");
+            created.add(itemService.createItem(mapper.toDto(item), itemOwner.getId()).getId());
+        }
+        assertThat(searchByCursor("стамеска", false), equalTo(created));
+        assertThat(searchByCursor("stameska", true), equalTo(created));
+        assertTrue(itemService.findItemsPage(" ", false, "", 2).getContent().isEmpty());
+        assertThrows(BadCursorException.class, () -> itemService.findItemsPage("стамеска", false, "bad", 2));
+    }
+
+    private List<Long> searchByCursor(String text, boolean fuzzy) {
+        List<Long> found = new ArrayList<>();
+        String cursor = "";
+
+        while (cursor != null) {
+            CursorPage<ItemDto> page = itemService.findItemsPage(text, fuzzy, cursor, 2);
+
+            page.getContent().forEach(itemDto -> found.add(itemDto.getId()));
+            cursor = page.getNextCursor();
+        }
+        return found;
+    }
+
+    @Test
+    void shouldCacheSearchResultsUntilItemTextChanges() {
+        item.setName("Рубанок");
+        item.setDescription("Рубанок столярный");
+
+        ItemDto plane = itemService.createItem(mapper.toDto(item), itemOwner.getId());
+        double hits = cacheGets("hit");
+
+        assertThat(itemService.findItemsBy("рубанок", 0, 20), hasSize(1));
+        assertThat(itemService.findItemsBy("  РУБАНОК ", 0, 20), hasSize(1));
+        assertThat(cacheGets("hit"), equalTo(hits + 1));
+
+        ItemDto update = new ItemDto();
+
+        update.setAvailable(false);
+        itemService.updateItem(plane.getId(), itemOwner.getId(), update);
+
+        assertTrue(itemService.findItemsBy("рубанок", 0, 20).isEmpty());
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", ItemSearchCache.NAME)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+
+    /*
+    in-memory индексы меняются после коммита, поэтому тест выполняется без общей транзакции
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldSuggestNamesOfAvailableItems() {
+        item.setName("Дрель");
+
+        ItemDto drill = itemService.createItem(mapper.toDto(item), itemOwner.getId());
+
+        item.setName("Дрожжи");
+        itemService.createItem(mapper.toDto(item), itemOwner.getId());
+        item.setName("Дрезина");
+        item.setAvailable(false);
+        itemService.createItem(mapper.toDto(item), itemOwner.getId());
+
+        assertThat(itemService.suggestNames("др", 10), equalTo(List.of("Дрель", "Дрожжи")));
+        assertThat(itemService.suggestNames("др", Integer.MAX_VALUE), equalTo(List.of("Дрель", "Дрожжи")));
+        assertThat(itemService.suggestNames("др", -1), equalTo(List.of()));
+
+        ItemDto update = new ItemDto();
+
+        update.setName("Перфоратор");
+        itemService.updateItem(drill.getId(), itemOwner.getId(), update);
+
+        assertThat(itemService.suggestNames("др", 10), equalTo(List.of("Дрожжи")));
+        assertThat(itemService.suggestNames("перф", 10), equalTo(List.of("Перфоратор")));
+    }
+
+    /*
+    in-memory индексы меняются после коммита, поэтому тест выполняется без общей транзакции
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldFilterItemsAndCountFacets() {
+        User otherOwner = new User();
+
+        otherOwner.setName("other");
+        otherOwner.setEmail("other@other.ru");
+        otherOwner = userRepository.save(otherOwner);
+        item.setName("Дрель");
+        item.setDescription("Ударная дрель");
+
+        ItemDto drill = itemService.createItem(mapper.toDto(item), itemOwner.getId());
+
+        item.setAvailable(false);
+
+        ItemDto brokenDrill = itemService.createItem(mapper.toDto(item), itemOwner.getId());
+
+        item.setName("Пила");
+        item.setDescription("Ручная пила");
+        item.setAvailable(true);
+
+        ItemDto saw = itemService.createItem(mapper.toDto(item), otherOwner.getId());
+
+        item.setName("Дрель");
+        item.setDescription("Дрель из шкафа");
+
+        ItemDto otherDrill = itemService.createItem(mapper.toDto(item), otherOwner.getId());
+
+        ItemSearchPageDto all = itemService.findItemsFaceted("", null, null, null, 0, 20);
+
+        assertThat(all.getTotal(), equalTo(4L));
+        assertThat(all.getFacets(), equalTo(new ItemSearchPageDto.Facets(
+                Map.of(itemOwner.getId(), 2L, otherOwner.getId(), 2L), 0, 4, 3, 1)));
+
+        ItemSearchPageDto availableOfOwner = itemService.findItemsFaceted("", itemOwner.getId(), null, true, 0, 20);
+
+        assertThat(availableOfOwner.getItems(), equalTo(List.of(drill)));
+        assertThat(availableOfOwner.getFacets().getOwners(), equalTo(Map.of(itemOwner.getId(), 1L, otherOwner.getId(), 2L)));
+        assertThat(availableOfOwner.getFacets().getAvailable(), equalTo(1L));
+        assertThat(availableOfOwner.getFacets().getUnavailable(), equalTo(1L));
+
+        ItemSearchPageDto drills = itemService.findItemsFaceted("дрель", null, null, null, 1, 1);
+
+        assertThat(drills.getTotal(), equalTo(2L));
+        assertThat(drills.getItems(), equalTo(List.of(otherDrill)));
+        assertTrue(itemService.findItemsFaceted("пила", null, true, null, 0, 20).getItems().isEmpty());
+        assertThat(itemService.findItemsFaceted("", null, null, false, 0, 20).getItems(), equalTo(List.of(brokenDrill)));
+        assertThat(itemService.findItemsFaceted("", otherOwner.getId(), false, null, 0, 20).getItems(),
+                equalTo(List.of(saw, otherDrill)));
+    }
+
     @Test
     void shouldReturnItemModel() {
         ItemDto itemDto = itemService.createItem(mapper.toDto(item), itemOwner.getId());
@@ -317,4 +696,27 @@ public class ItemServiceTest {
 
         assertThat(commentDto.getText(), equalTo(comment.getText()));
     }
+
+    private void addComment(long itemId, String text) {
+        Comment comment = new Comment();
+
+        comment.setText(text);
+        comment.setAuthorName("author");
+        comment.setCreated(LocalDateTime.now());
+        comment.setItemId(itemId);
+        em.persist(comment);
+    }
+
+    /**
+     * Сбрасывает контекст персистентности и счетчики Hibernate: дальше считаются только запросы проверяемого метода
+     */
+    private Statistics startCountingStatements() {
+        em.flush();
+        em.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        return statistics;
+    }
 }
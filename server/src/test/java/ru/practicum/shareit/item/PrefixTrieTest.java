@@ -0,0 +1,56 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.search.PrefixTrie;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@DisplayName("Prefix trie")
+public class PrefixTrieTest {
+    private PrefixTrie trie;
+
+    @BeforeEach
+    void init() {
+        trie = new PrefixTrie();
+        trie.add("Дрель");
+        trie.add("дрель ");
+        trie.add("Дрель ударная");
+        trie.add("Дрожжи");
+        trie.add("Пила");
+    }
+
+    @Test
+    void shouldSuggestMostFrequentNamesFirst() {
+        assertThat(trie.suggest("др", 10), equalTo(List.of("Дрель", "Дрель ударная", "Дрожжи")));
+        assertThat(trie.suggest("ДРЕ", 1), equalTo(List.of("Дрель")));
+        assertThat(trie.suggest("пила ручная", 10), equalTo(List.of()));
+        assertThat(trie.suggest("др", 0), equalTo(List.of()));
+        assertThat(trie.suggest("др", -1), equalTo(List.of()));
+    }
+
+    @Test
+    void shouldOrderEqualCountsAlphabetically() {
+        trie.add("Дрожжи");
+
+        assertThat(trie.suggest("д", 10), equalTo(List.of("Дрель", "Дрожжи", "Дрель ударная")));
+    }
+
+    @Test
+    void shouldForgetRemovedNames() {
+        trie.remove("Дрель");
+        trie.remove("ДРЕЛЬ");
+        trie.remove("Дрожжи");
+        trie.remove("Молоток");
+
+        assertThat(trie.suggest("др", 10), equalTo(List.of("Дрель ударная")));
+
+        trie.clear();
+
+        assertThat(trie.suggest("", 10), equalTo(List.of()));
+    }
+}
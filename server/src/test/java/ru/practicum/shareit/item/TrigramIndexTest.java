@@ -0,0 +1,72 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.search.Transliteration;
+import ru.practicum.shareit.item.search.TrigramIndex;
+import ru.practicum.shareit.utilities.models.ScoredId;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@DisplayName("Trigram index")
+public class TrigramIndexTest {
+    private TrigramIndex index;
+
+    @BeforeEach
+    void init() {
+        index = new TrigramIndex();
+        index.rebuild(Map.of(
+                1L, "Дрель ударная",
+                2L, "Пила ручная",
+                3L, "Drill cordless"));
+    }
+
+    @Test
+    void shouldTransliterateQuery() {
+        assertThat(Transliteration.variants("Drel"), equalTo(List.of("drel", "дрел")));
+        assertThat(Transliteration.variants("щетка"), equalTo(List.of("щетка", "shchetka")));
+    }
+
+    @Test
+    void shouldFindDocumentWithTypo() {
+        assertThat(ids(List.of("дрнль"), 0.3), equalTo(List.of(1L)));
+        assertThat(ids(List.of("пилаа"), 0.5), equalTo(List.of(2L)));
+    }
+
+    @Test
+    void shouldFindDocumentTypedInOtherLayout() {
+        assertThat(ids(Transliteration.variants("drel"), 0.5), equalTo(List.of(1L)));
+        assertThat(ids(Transliteration.variants("дрилл"), 0.5), equalTo(List.of(3L)));
+    }
+
+    @Test
+    void shouldRankBySimilarityAndApplyThreshold() {
+        index.put(4L, "Дрелька");
+
+        assertThat(ids(List.of("дрель"), 0.5), equalTo(List.of(1L, 4L)));
+        assertThat(ids(List.of("дрель"), 0.9), equalTo(List.of(1L)));
+        assertThat(ids(List.of("молоток"), 0.3), equalTo(List.of()));
+    }
+
+    @Test
+    void shouldForgetRemovedAndReplacedDocuments() {
+        assertThat(index.put(1L, "Молоток"), equalTo("Дрель ударная"));
+        assertThat(index.remove(2L), equalTo("Пила ручная"));
+
+        assertThat(ids(List.of("дрель"), 0.5), equalTo(List.of()));
+        assertThat(ids(List.of("пила"), 0.5), equalTo(List.of()));
+        assertThat(ids(List.of("молоток"), 0.5), equalTo(List.of(1L)));
+    }
+
+    private List<Long> ids(List<String> variants, double threshold) {
+        return index.search(variants, threshold).stream()
+                .map(ScoredId::getId)
+                .collect(Collectors.toList());
+    }
+}
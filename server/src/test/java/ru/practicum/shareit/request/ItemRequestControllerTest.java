@@ -15,7 +15,10 @@ import ru.practicum.shareit.request.controller.ItemRequestController;
 import ru.practicum.shareit.request.model.ItemRequestDtoAfterCreate;
 import ru.practicum.shareit.request.model.ItemRequestDtoInfo;
 import ru.practicum.shareit.request.model.ItemRequestDtoOnCreate;
+import ru.practicum.shareit.request.model.ItemRequestSummaryDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.utilities.models.Cursor;
+import ru.practicum.shareit.utilities.models.CursorPage;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -107,4 +110,69 @@ public class ItemRequestControllerTest {
                 .andExpect(jsonPath("$.description", is(itemRequestDtoInfo.getDescription())))
                 .andExpect(jsonPath("$.id", is(itemRequestDtoInfo.getId()), Long.class));
     }
+
+    @Test
+    void shouldReturnNextCursorWhenRequestingAllByCursor() throws Exception {
+        when(itemRequestService.getAllRequestsPage(1L, "", 1))
+                .thenReturn(new CursorPage<>(List.of(itemRequestDtoInfo), "next"));
+
+        mockMvc.perform(
+                        get("/requests/all")
+                                .header(xSharerUserId, 1L)
+                                .param("size", "1")
+                                .param("cursor", "")
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string(Cursor.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(itemRequestDtoInfo.getId()), Long.class));
+    }
+
+    @Test
+    void shouldReturnRequestsPage() throws Exception {
+        when(itemRequestService.getRequestsByOwner(1L, 20, 10))
+                .thenReturn(List.of(itemRequestDtoInfo));
+
+        mockMvc.perform(
+                        get("/requests")
+                                .header(xSharerUserId, 1L)
+                                .param("from", "20")
+                                .param("size", "10")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(itemRequestDtoInfo.getId()), Long.class));
+    }
+
+    @Test
+    void shouldReturnSummary() throws Exception {
+        when(itemRequestService.getSummary(1L))
+                .thenReturn(new ItemRequestSummaryDto(3, 1, 4));
+
+        mockMvc.perform(
+                        get("/requests/summary")
+                                .header(xSharerUserId, 1L)
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requests", is(3)))
+                .andExpect(jsonPath("$.openRequests", is(1)))
+                .andExpect(jsonPath("$.itemsReceived", is(4)));
+    }
+
+    @Test
+    void shouldReturnSearchResultsWithNextCursor() throws Exception {
+        when(itemRequestService.searchRequests(1L, "дрель", null, 1))
+                .thenReturn(new CursorPage<>(List.of(itemRequestDtoInfo), "next"));
+
+        mockMvc.perform(
+                        get("/requests/search")
+                                .header(xSharerUserId, 1L)
+                                .param("text", "дрель")
+                                .param("size", "1")
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string(Cursor.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(itemRequestDtoInfo.getId()), Long.class));
+    }
 }
@@ -1,27 +1,47 @@
 package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.model.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.matching.ItemRequestMatcher;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.model.ItemRequestDtoAfterCreate;
 import ru.practicum.shareit.request.model.ItemRequestDtoInfo;
 import ru.practicum.shareit.request.model.ItemRequestDtoOnCreate;
+import ru.practicum.shareit.request.model.ItemRequestSummaryDto;
+import ru.practicum.shareit.request.model.ItemSuggestionDto;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.utilities.models.CursorPage;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -30,6 +50,13 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 public class ItemRequestServiceImplTest {
     private final ItemRequestService itemRequestService;
     private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemService itemService;
+    private final EntityManager em;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ItemRequestMatcher requestMatcher;
+    private final RequestSuggestionRepository suggestionRepository;
     User requester;
 
     @BeforeEach
@@ -44,7 +71,10 @@ public class ItemRequestServiceImplTest {
 
     @AfterEach
     void afterEach() {
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
         userRepository.deleteAll();
+        requestMatcher.rebuild();
     }
 
     @Test
@@ -140,4 +170,254 @@ public class ItemRequestServiceImplTest {
                 .map(r -> r.getId())
                 .collect(Collectors.toList()), equalTo(List.of(firstRequest.getId(), secondRequest.getId())));
     }
+
+    @Test
+    void shouldReadRequestsWithTheirItemsInTwoStatements() {
+        User owner = new User();
+
+        owner.setName("owner");
+        owner.setEmail("owner@owner.ru");
+        owner = userRepository.save(owner);
+        for (int i = 0; i < 3; i++) {
+            ItemRequestDtoOnCreate itemRequestDtoOnCreate = new ItemRequestDtoOnCreate();
+
+            itemRequestDtoOnCreate.setDescription("description " + i);
+
+            Long requestId = itemRequestService.createRequest(requester.getId(), itemRequestDtoOnCreate).getId();
+
+            for (int j = 0; j < 2; j++) {
+                Item item = new Item();
+
+                item.setName("item " + i + j);
+                item.setDescription("description");
+                item.setAvailable(true);
+                item.setOwner(owner);
+                item.setRequestId(requestId);
+                itemRepository.save(item);
+            }
+        }
+        // пользователи уже в кэше: считаются только запросы к запросам и вещам
+        itemRequestService.getRequestsByOwner(requester.getId());
+        itemRequestService.getAllRequests(0, 20, owner.getId());
+        em.flush();
+        em.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+
+        List<ItemRequestDtoInfo> own = itemRequestService.getRequestsByOwner(requester.getId());
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+
+        statistics.clear();
+
+        List<ItemRequestDtoInfo> all = itemRequestService.getAllRequests(0, 20, owner.getId());
+
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+        assertThat(statistics.getEntityFetchCount(), equalTo(0L));
+        assertThat(own.size(), equalTo(3));
+        assertThat(all.size(), equalTo(3));
+        assertTrue(own.stream().allMatch(request -> request.getItems().size() == 2));
+        assertTrue(all.stream().allMatch(request -> request.getItems().stream()
+                .allMatch(item -> item.getRequestId().equals(request.getId()))));
+    }
+
+    @Test
+    void shouldPageAllRequestsByCursorFromNewestWithoutGapsAndDuplicates() {
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 12, 0);
+        List<Long> saved = new ArrayList<>();
+        User reader = new User();
+
+        reader.setName("reader");
+        reader.setEmail("reader@mail.ru");
+        reader = userRepository.save(reader);
+        for (int i = 0; i < 5; i++) {
+            /*
+            у двух запросов одинаковое время создания: порядок между ними задает id
+             */
+            saved.add(saveRequest(requester, created.plusDays(Math.min(i, 3))).getId());
+        }
+        saveRequest(reader, created.plusDays(10));
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = "";
+
+        do {
+            CursorPage<ItemRequestDtoInfo> page = itemRequestService.getAllRequestsPage(reader.getId(), cursor, 2);
+
+            page.getContent().forEach(request -> paged.add(request.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(paged, equalTo(List.of(saved.get(4), saved.get(3), saved.get(2), saved.get(1), saved.get(0))));
+    }
+
+    @Test
+    void shouldSearchOpenRequestsOfOtherUsersByCursorWithoutGapsAndDuplicates() {
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 12, 0);
+        List<Long> saved = new ArrayList<>();
+        User owner = new User();
+
+        owner.setName("owner");
+        owner.setEmail("owner@owner.ru");
+        owner = userRepository.save(owner);
+        for (int i = 0; i < 5; i++) {
+            saved.add(saveRequest(requester, created, "Нужна дрель на выходные " + i).getId());
+        }
+        saveRequest(requester, created, "Нужна лестница");
+        saveRequest(owner, created, "Нужна дрель");
+        Long answered = saveRequest(requester, created, "Нужна дрель ударная").getId();
+
+        itemService.createItem(itemDto("Дрель", answered), owner.getId());
+
+        List<Long> found = new ArrayList<>();
+        String cursor = null;
+
+        do {
+            CursorPage<ItemRequestDtoInfo> page = itemRequestService.searchRequests(owner.getId(), "ДРЕЛЬ нужна", cursor, 2);
+
+            page.getContent().forEach(request -> found.add(request.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(found, equalTo(saved));
+        assertTrue(itemRequestService.searchRequests(owner.getId(), " ", null, 2).getContent().isEmpty());
+        assertTrue(itemRequestService.searchRequests(owner.getId(), "рель", null, 2).getContent().isEmpty());
+    }
+
+    private ItemRequest saveRequest(User user, LocalDateTime created) {
+        return saveRequest(user, created, "description");
+    }
+
+    private ItemRequest saveRequest(User user, LocalDateTime created, String description) {
+        ItemRequest itemRequest = new ItemRequest();
+
+        itemRequest.setUser(user);
+        itemRequest.setDescription(description);
+        itemRequest.setCreated(created);
+        return itemRequestRepository.save(itemRequest);
+    }
+
+    @Test
+    void shouldPageRequestsByOwner() {
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 12, 0);
+        List<Long> saved = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            saved.add(saveRequest(requester, created.plusDays(i)).getId());
+        }
+
+        List<ItemRequestDtoInfo> page = itemRequestService.getRequestsByOwner(requester.getId(), 1, 1);
+
+        assertThat(page.size(), equalTo(1));
+        assertThat(page.get(0).getId(), equalTo(saved.get(1)));
+    }
+
+    @Test
+    void shouldCacheSummaryUntilItemIsCreatedForRequest() {
+        User owner = new User();
+
+        owner.setName("owner");
+        owner.setEmail("owner@owner.ru");
+        owner = userRepository.save(owner);
+
+        Long first = saveRequest(requester, LocalDateTime.now()).getId();
+
+        saveRequest(requester, LocalDateTime.now());
+
+        ItemRequestSummaryDto summary = itemRequestService.getSummary(requester.getId());
+
+        assertThat(summary.getRequests(), equalTo(2L));
+        assertThat(summary.getOpenRequests(), equalTo(2L));
+        assertThat(summary.getItemsReceived(), equalTo(0L));
+
+        /*
+        вещь, сохраненная в обход сервиса, не сбрасывает сводку: виден закэшированный результат
+         */
+        Item item = new Item();
+
+        item.setName("item");
+        item.setDescription("description");
+        item.setAvailable(true);
+        item.setOwner(owner);
+        item.setRequestId(first);
+        itemRepository.save(item);
+
+        assertThat(itemRequestService.getSummary(requester.getId()).getItemsReceived(), equalTo(0L));
+
+        ItemDto itemDto = new ItemDto();
+
+        itemDto.setName("other item");
+        itemDto.setDescription("description");
+        itemDto.setAvailable(true);
+        itemDto.setRequestId(first);
+        itemService.createItem(itemDto, owner.getId());
+
+        summary = itemRequestService.getSummary(requester.getId());
+
+        assertThat(summary.getRequests(), equalTo(2L));
+        assertThat(summary.getOpenRequests(), equalTo(1L));
+        assertThat(summary.getItemsReceived(), equalTo(2L));
+    }
+
+    /*
+    индекс открытых запросов меняется после коммита, поэтому тест выполняется без общей транзакции
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldSuggestNewItemToAuthorsOfMatchingOpenRequests() {
+        User owner = new User();
+
+        owner.setName("owner");
+        owner.setEmail("owner@owner.ru");
+        owner = userRepository.save(owner);
+
+        ItemRequestDtoOnCreate itemRequestDtoOnCreate = new ItemRequestDtoOnCreate();
+
+        itemRequestDtoOnCreate.setDescription("Хотел бы воспользоваться щёткой для обуви");
+
+        Long requestId = itemRequestService.createRequest(requester.getId(), itemRequestDtoOnCreate).getId();
+        Long brushId = itemService.createItem(itemDto("Щетка для обуви", null), owner.getId()).getId();
+
+        itemService.createItem(itemDto("Дрель", null), owner.getId());
+
+        List<ItemSuggestionDto> suggestions = itemRequestService.getSuggestions(requester.getId(), 0, 20);
+
+        assertThat(suggestions.size(), equalTo(1));
+        assertThat(suggestions.get(0).getRequestId(), equalTo(requestId));
+        assertThat(suggestions.get(0).getItemId(), equalTo(brushId));
+        assertThat(suggestions.get(0).getName(), equalTo("Щетка для обуви"));
+
+        /*
+        вещь, созданная по запросу, закрывает его: предложения по нему удаляются, следующие вещи уже не предлагаются
+         */
+        itemService.createItem(itemDto("Щётка обувная", requestId), owner.getId());
+        itemService.createItem(itemDto("Щётка для обуви", null), owner.getId());
+
+        assertThat(itemRequestService.getSuggestions(requester.getId(), 0, 20).size(), equalTo(0));
+        assertThat(suggestionRepository.count(), equalTo(0L));
+
+        /*
+        предложение, сохраненное параллельной транзакцией уже после закрытия запроса, не возвращается
+         */
+        RequestSuggestion late = new RequestSuggestion();
+
+        late.setRequestId(requestId);
+        late.setItemId(brushId);
+        late.setCreated(LocalDateTime.now());
+        suggestionRepository.save(late);
+
+        assertThat(itemRequestService.getSuggestions(requester.getId(), 0, 20).size(), equalTo(0));
+    }
+
+    private static ItemDto itemDto(String name, Long requestId) {
+        ItemDto itemDto = new ItemDto();
+
+        itemDto.setName(name);
+        itemDto.setDescription("description");
+        itemDto.setAvailable(true);
+        itemDto.setRequestId(requestId);
+        return itemDto;
+    }
 }
@@ -0,0 +1,62 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.request.matching.OpenRequestIndex;
+import ru.practicum.shareit.request.matching.RequestTerms;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+@DisplayName("Open request index")
+public class OpenRequestIndexTest {
+    private OpenRequestIndex index;
+
+    @BeforeEach
+    void init() {
+        index = new OpenRequestIndex();
+        index.rebuild(Map.of(
+                1L, entry(10L, "Хотел бы воспользоваться щёткой для обуви"),
+                2L, entry(20L, "Нужна аккумуляторная дрель на выходные"),
+                3L, entry(30L, "Ищу дрель и щетку")));
+    }
+
+    @Test
+    void shouldReduceWordsToStems() {
+        assertThat(RequestTerms.of("Щётка для обуви"), equalTo(List.of("щетк", "обув")));
+        assertThat(RequestTerms.of("и в на"), equalTo(List.of()));
+    }
+
+    @Test
+    void shouldMatchRequestsContainingEnoughStemsOfItemName() {
+        assertThat(index.match(RequestTerms.of("Щетка для обуви"), 2, 0L), equalTo(List.of(1L)));
+        assertThat(index.match(RequestTerms.of("Щетка для обуви"), 1, 0L), equalTo(List.of(1L, 3L)));
+        assertThat(index.match(RequestTerms.of("Дрель"), 1, 0L), equalTo(List.of(2L, 3L)));
+        assertThat(index.match(RequestTerms.of("Пила"), 1, 0L), equalTo(List.of()));
+    }
+
+    @Test
+    void shouldNotMatchRequestsOfItemOwner() {
+        assertThat(index.match(RequestTerms.of("Дрель"), 1, 20L), equalTo(List.of(3L)));
+    }
+
+    @Test
+    void shouldForgetClosedRequests() {
+        OpenRequestIndex.Entry removed = index.remove(3L);
+
+        assertThat(index.match(RequestTerms.of("Дрель"), 1, 0L), equalTo(List.of(2L)));
+        assertThat(index.size(), equalTo(2));
+
+        index.put(3L, removed);
+
+        assertThat(index.match(RequestTerms.of("Дрель"), 1, 0L), equalTo(List.of(2L, 3L)));
+    }
+
+    private static OpenRequestIndex.Entry entry(long userId, String description) {
+        return new OpenRequestIndex.Entry(userId, RequestTerms.of(description));
+    }
+}
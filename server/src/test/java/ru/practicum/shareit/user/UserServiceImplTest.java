@@ -11,6 +11,7 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.model.UserDto;
 import ru.practicum.shareit.user.service.UserDtoMapper;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.utilities.EntityCache;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
@@ -19,7 +20,9 @@ import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Transactional
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -29,6 +32,7 @@ public class UserServiceImplTest {
     private final EntityManager em;
     private final UserService userService;
     private final UserDtoMapper mapper;
+    private final EntityCache<User> userCache;
 
     @Test
     void shouldCreateUserFromDto() {
@@ -88,6 +92,24 @@ public class UserServiceImplTest {
         });
     }
 
+    @Test
+    void shouldReadUserThroughCacheAndEvictOnWrites() {
+        UserDto userDto = userService.createUser(getUserDto());
+        long id = userDto.getId();
+        User cached = userCache.find(id).orElseThrow();
+
+        assertThat(userCache.find(id).orElseThrow(), sameInstance(cached));
+
+        userDto.setName("updated name");
+        userService.updateUser(id, userDto);
+
+        assertThat(userCache.find(id).orElseThrow().getName(), equalTo("updated name"));
+
+        userService.deleteUser(id);
+
+        assertTrue(userCache.find(id).isEmpty());
+    }
+
     @Test
     void shouldUpdateUser() {
         UserDto userDto = getUserDto();